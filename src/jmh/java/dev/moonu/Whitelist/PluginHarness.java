@@ -0,0 +1,95 @@
+package dev.moonu.Whitelist;
+
+import dev.moonu.Whitelist.benchmark.StubServer;
+import dev.moonu.Whitelist.metrics.PluginMetrics;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+
+/**
+ * Enables the plugin against a {@link StubServer} in a temporary data folder, with no Discord token
+ * so the bot never connects. Bukkit accepts one server per JVM, so each benchmark fork boots one harness.
+ */
+public final class PluginHarness {
+    private final StubServer stubServer = new StubServer();
+    private final Path dataFolder;
+    private final Main plugin;
+    
+    /**
+     * Boot the plugin
+     * @param whitelistSize Number of players whitelisted before the plugin enables
+     * @param config Extra config.yml content; keys not given keep the bundled defaults
+     */
+    public PluginHarness(int whitelistSize, String config) throws IOException {
+        Bukkit.setServer(stubServer.getServer());
+        stubServer.fillWhitelist(whitelistSize);
+        
+        dataFolder = Files.createTempDirectory("discordwhitelist-bench");
+        Files.writeString(dataFolder.resolve("config.yml"), config, StandardCharsets.UTF_8);
+        
+        PluginDescriptionFile description = new PluginDescriptionFile("DiscordWhitelist", "bench", Main.class.getName());
+        plugin = createPlugin(new JavaPluginLoader(stubServer.getServer()), description, dataFolder.toFile(),
+                new File(dataFolder.toFile(), "DiscordWhitelist.jar"));
+        plugin.getLogger().setLevel(Level.OFF);
+        stubServer.setPlugin(plugin);
+        plugin.onEnable();
+    }
+    
+    /**
+     * Main only has the constructor the server calls, which insists on a plugin class loader.
+     * Build it the way deserialization does instead: allocate a Main and run JavaPlugin's constructor for use
+     * outside a server on it. Main's own field initializers are skipped, so they are repeated here.
+     */
+    private static Main createPlugin(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+        try {
+            Constructor<JavaPlugin> init = JavaPlugin.class.getDeclaredConstructor(
+                    JavaPluginLoader.class, PluginDescriptionFile.class, File.class, File.class);
+            // Looked up reflectively so the JDK-internal class does not show up as a compile warning
+            Class<?> factoryClass = Class.forName("sun.reflect.ReflectionFactory");
+            Object factory = factoryClass.getMethod("getReflectionFactory").invoke(null);
+            Constructor<?> constructor = (Constructor<?>) factoryClass
+                    .getMethod("newConstructorForSerialization", Class.class, Constructor.class)
+                    .invoke(factory, Main.class, init);
+            Main plugin = (Main) constructor.newInstance(loader, description, dataFolder, file);
+            
+            Field metrics = Main.class.getDeclaredField("metrics");
+            metrics.setAccessible(true);
+            metrics.set(plugin, new PluginMetrics());
+            return plugin;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create the plugin outside a server", e);
+        }
+    }
+    
+    public Main getPlugin() {
+        return plugin;
+    }
+    
+    public StubServer getStubServer() {
+        return stubServer;
+    }
+    
+    /**
+     * Disable the plugin and delete the data folder
+     */
+    public void close() throws IOException {
+        plugin.onDisable();
+        try (Stream<Path> files = Files.walk(dataFolder)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
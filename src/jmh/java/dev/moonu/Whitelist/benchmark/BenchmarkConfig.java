@@ -0,0 +1,30 @@
+package dev.moonu.Whitelist.benchmark;
+
+/**
+ * config.yml used by the benchmarks: no token, English messages, replies sent without coalescing
+ * and rate limits off, so every iteration takes the same path
+ */
+final class BenchmarkConfig {
+    static final long AUTHORIZED_USER_ID = 1L;
+    
+    static final String YAML = String.join("\n",
+            "discord:",
+            "  token: \"\"",
+            "  prefix: \"m\"",
+            "  authorized_user_ids: [\"" + AUTHORIZED_USER_ID + "\"]",
+            "  reply_coalesce_ms: 0",
+            "  rate_limit:",
+            "    default:",
+            "      user_per_minute: 0",
+            "      guild_per_minute: 0",
+            "    commands:",
+            "      whitelist:",
+            "        user_per_minute: 0",
+            "        guild_per_minute: 0",
+            "settings:",
+            "  locale: \"en\"",
+            "");
+    
+    private BenchmarkConfig() {
+    }
+}
@@ -0,0 +1,84 @@
+package dev.moonu.Whitelist.benchmark;
+
+import dev.moonu.Whitelist.PluginHarness;
+import dev.moonu.Whitelist.discord.DiscordCommandManager;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.unions.MessageChannelUnion;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DiscordCommandManager#onMessageReceived} for the messages a busy guild mostly sends:
+ * plain chat, a prefixed word that is not a command, and a command from a user who may not run it.
+ * The last one is parsed, routed, rate limited, permission checked and answered, but never executed,
+ * so no executor thread is involved in the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandRoutingBenchmark {
+    private static final long GUILD_ID = 100L;
+    private static final long CHANNEL_ID = 200L;
+    private static final long USER_ID = 42L;
+    
+    private PluginHarness harness;
+    private DiscordCommandManager commandManager;
+    private MessageReceivedEvent chatMessage;
+    private MessageReceivedEvent unknownCommand;
+    private MessageReceivedEvent deniedCommand;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        harness = new PluginHarness(0, BenchmarkConfig.YAML);
+        commandManager = harness.getPlugin().getDiscordCommandManager();
+        
+        JDA jda = Stubs.stub(JDA.class);
+        Guild guild = GuildMessageEvent.guild(GUILD_ID);
+        MessageChannelUnion channel = Stubs.stub(MessageChannelUnion.class,
+                (method, args) -> "getIdLong".equals(method) ? CHANNEL_ID : Stubs.DEFAULT);
+        User user = GuildMessageEvent.user(USER_ID, "member");
+        
+        chatMessage = GuildMessageEvent.of(jda, guild, channel, user, "did anyone see the new build at spawn?");
+        unknownCommand = GuildMessageEvent.of(jda, guild, channel, user, "mfoo bar");
+        deniedCommand = GuildMessageEvent.of(jda, guild, channel, user, "mwhitelist add Steve");
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        harness.close();
+    }
+    
+    @Benchmark
+    public void chatMessage() {
+        commandManager.onMessageReceived(chatMessage);
+    }
+    
+    @Benchmark
+    public void unknownCommand() {
+        commandManager.onMessageReceived(unknownCommand);
+    }
+    
+    @Benchmark
+    public void deniedCommand() {
+        commandManager.onMessageReceived(deniedCommand);
+    }
+}
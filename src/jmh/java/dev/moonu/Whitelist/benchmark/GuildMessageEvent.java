@@ -0,0 +1,86 @@
+package dev.moonu.Whitelist.benchmark;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.unions.MessageChannelUnion;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+
+/**
+ * A guild message event that answers guild and channel lookups without JDA's entity caches
+ */
+final class GuildMessageEvent extends MessageReceivedEvent {
+    private final Guild guild;
+    private final MessageChannelUnion channel;
+    
+    private GuildMessageEvent(JDA jda, Message message, Guild guild, MessageChannelUnion channel) {
+        super(jda, 0, message);
+        this.guild = guild;
+        this.channel = channel;
+    }
+    
+    /**
+     * Build a message event
+     * @param content The raw message content
+     * @return The event
+     */
+    static GuildMessageEvent of(JDA jda, Guild guild, MessageChannelUnion channel, User author, String content) {
+        Message message = Stubs.stub(Message.class, (method, args) -> {
+            switch (method) {
+                case "getContentRaw":
+                    return content;
+                case "getAuthor":
+                    return author;
+                case "getChannel":
+                    return channel;
+                case "getMember":
+                    return null;
+                default:
+                    return Stubs.DEFAULT;
+            }
+        });
+        return new GuildMessageEvent(jda, message, guild, channel);
+    }
+    
+    /**
+     * Build a guild stub
+     */
+    static Guild guild(long id) {
+        return Stubs.stub(Guild.class, (method, args) -> "getIdLong".equals(method) ? id : Stubs.DEFAULT);
+    }
+    
+    /**
+     * Build a user stub
+     */
+    static User user(long id, String name) {
+        return Stubs.stub(User.class, (method, args) -> {
+            switch (method) {
+                case "getIdLong":
+                    return id;
+                case "getId":
+                    return Long.toString(id);
+                case "getName":
+                case "getEffectiveName":
+                    return name;
+                default:
+                    return Stubs.DEFAULT;
+            }
+        });
+    }
+    
+    @Override
+    public boolean isFromGuild() {
+        return true;
+    }
+    
+    @Override
+    public Guild getGuild() {
+        return guild;
+    }
+    
+    @Override
+    public MessageChannelUnion getChannel() {
+        return channel;
+    }
+}
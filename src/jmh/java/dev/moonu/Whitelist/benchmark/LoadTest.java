@@ -0,0 +1,288 @@
+package dev.moonu.Whitelist.benchmark;
+
+import dev.moonu.Whitelist.PluginHarness;
+import dev.moonu.Whitelist.audit.AuditLogWriter;
+import dev.moonu.Whitelist.discord.DiscordCommandManager;
+import dev.moonu.Whitelist.discord.ReplyDispatcher;
+import dev.moonu.Whitelist.metrics.CommandMetrics;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.unions.MessageChannelUnion;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays synthetic Discord traffic through {@link DiscordCommandManager} at a fixed rate, fully offline.
+ * <p>
+ * Messages are sent open-loop on a schedule and latency is measured from each message's scheduled time,
+ * so a stalled handler shows up as latency instead of silently lowering the offered rate.
+ * Chatter latency ends when the listener returns; command latency ends when the first reply is handed
+ * to the channel. Every message gets its own channel so replies can be matched to it.
+ * <p>
+ * Run with {@code mvn -Pjmh test-compile exec:exec@load -Dload.args="--rate=2000 --seconds=30"}. Options:
+ * <ul>
+ *     <li>{@code --rate}: messages per second, default 1000</li>
+ *     <li>{@code --seconds}: run length, default 20</li>
+ *     <li>{@code --mix}: weights per message kind, default {@code chat:90,add:4,remove:4,list:2}</li>
+ *     <li>{@code --users}: distinct authors, all authorized, default 200</li>
+ *     <li>{@code --whitelist}: players whitelisted up front, default 10000</li>
+ *     <li>{@code --names}: distinct player names used by add/remove, default 2000</li>
+ *     <li>{@code --lookup-ms}: simulated profile lookup time for uncached names, default 0</li>
+ *     <li>{@code --coalesce-ms}: {@code discord.reply_coalesce_ms}, default 0</li>
+ *     <li>{@code --rate-limits}: keep the bundled rate limits instead of turning them off</li>
+ *     <li>{@code --drain-seconds}: how long to wait for outstanding replies, default 10</li>
+ * </ul>
+ */
+public final class LoadTest {
+    private static final long GUILD_ID = 100L;
+    private static final String[] KINDS = {"chat", "add", "remove", "list"};
+    private static final String[] CHATTER = {
+            "anyone up for the nether later?",
+            "gg",
+            "did the server restart?",
+            "mhm that farm is huge",
+            "lol",
+            "who took my diamonds"
+    };
+    
+    private final Map<String, String> options;
+    private final int rate;
+    private final int seconds;
+    private final int[] weights = new int[KINDS.length];
+    private final int users;
+    
+    private int[] kinds;
+    private long[] scheduled;
+    private AtomicLongArray latencies;
+    private MessageReceivedEvent[] events;
+    
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+        this.rate = intOption("rate", 1000);
+        this.seconds = intOption("seconds", 20);
+        this.users = intOption("users", 200);
+        
+        for (String part : options.getOrDefault("mix", "chat:90,add:4,remove:4,list:2").split(",")) {
+            String[] weight = part.split(":");
+            int kind = Arrays.asList(KINDS).indexOf(weight[0].trim());
+            if (kind < 0) {
+                throw new IllegalArgumentException("Unknown message kind in --mix: " + weight[0]);
+            }
+            weights[kind] = Integer.parseInt(weight[1].trim());
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int equals = arg.indexOf('=');
+            options.put(equals < 0 ? arg.substring(2) : arg.substring(2, equals), equals < 0 ? "true" : arg.substring(equals + 1));
+        }
+        new LoadTest(options).run();
+        // Lookup and reply threads of the plugin are daemons, but the command executor may not be
+        System.exit(0);
+    }
+    
+    private int intOption(String name, int fallback) {
+        String value = options.get(name);
+        return value == null ? fallback : Integer.parseInt(value);
+    }
+    
+    private void run() throws IOException, InterruptedException {
+        PluginHarness harness = new PluginHarness(intOption("whitelist", 10000), config());
+        harness.getStubServer().setLookupDelayMillis(intOption("lookup-ms", 0));
+        DiscordCommandManager commandManager = harness.getPlugin().getDiscordCommandManager();
+        
+        int total = (int) Math.min(Integer.MAX_VALUE - 8, (long) rate * seconds);
+        buildEvents(total);
+        System.out.printf(Locale.ROOT, "Sending %d messages at %d/s for %ds%n", total, rate, seconds);
+        
+        // Open-loop schedule: message i is due at start + i / rate
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        for (int i = 0; i < total; i++) {
+            scheduled[i] = start + (long) i * 1_000_000_000L / rate;
+        }
+        for (int i = 0; i < total; i++) {
+            long wait = scheduled[i] - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            commandManager.onMessageReceived(events[i]);
+            if (kinds[i] == 0) {
+                latencies.set(i, Math.max(1, System.nanoTime() - scheduled[i]));
+            }
+        }
+        long sendNanos = System.nanoTime() - start;
+        
+        long unanswered = drain(total, TimeUnit.SECONDS.toNanos(intOption("drain-seconds", 10)));
+        report(harness, total, sendNanos, unanswered);
+        harness.close();
+    }
+    
+    private String config() {
+        StringBuilder config = new StringBuilder();
+        config.append("discord:\n");
+        config.append("  token: \"\"\n");
+        config.append("  prefix: \"m\"\n");
+        config.append("  reply_coalesce_ms: ").append(intOption("coalesce-ms", 0)).append('\n');
+        config.append("  authorized_user_ids:\n");
+        for (int user = 1; user <= users; user++) {
+            config.append("    - \"").append(user).append("\"\n");
+        }
+        if (!options.containsKey("rate-limits")) {
+            config.append("  rate_limit:\n");
+            config.append("    default:\n");
+            config.append("      user_per_minute: 0\n");
+            config.append("      guild_per_minute: 0\n");
+            config.append("    commands:\n");
+            config.append("      whitelist:\n");
+            config.append("        user_per_minute: 0\n");
+            config.append("        guild_per_minute: 0\n");
+        }
+        config.append("settings:\n");
+        config.append("  locale: \"en\"\n");
+        return config.toString();
+    }
+    
+    /**
+     * Build every event up front so the send loop allocates nothing of its own
+     */
+    private void buildEvents(int total) {
+        kinds = new int[total];
+        scheduled = new long[total];
+        latencies = new AtomicLongArray(total);
+        events = new MessageReceivedEvent[total];
+        
+        int weightSum = 0;
+        for (int weight : weights) {
+            weightSum += weight;
+        }
+        if (weightSum <= 0) {
+            throw new IllegalArgumentException("--mix has no positive weights");
+        }
+        
+        JDA jda = Stubs.stub(JDA.class);
+        Guild guild = GuildMessageEvent.guild(GUILD_ID);
+        User[] authors = new User[users];
+        for (int user = 0; user < users; user++) {
+            authors[user] = GuildMessageEvent.user(user + 1, "user" + (user + 1));
+        }
+        
+        int names = intOption("names", 2000);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < total; i++) {
+            int pick = random.nextInt(weightSum);
+            int kind = 0;
+            while (pick >= weights[kind]) {
+                pick -= weights[kind];
+                kind++;
+            }
+            kinds[i] = kind;
+            
+            String content;
+            switch (kind) {
+                case 1:
+                    content = "mwhitelist add load" + random.nextInt(names);
+                    break;
+                case 2:
+                    content = "mwhitelist remove load" + random.nextInt(names);
+                    break;
+                case 3:
+                    content = "mwhitelist list";
+                    break;
+                default:
+                    content = CHATTER[random.nextInt(CHATTER.length)];
+                    break;
+            }
+            events[i] = GuildMessageEvent.of(jda, guild, replyChannel(i), authors[random.nextInt(users)], content);
+        }
+    }
+    
+    /**
+     * A channel that records the latency of the first reply sent to it
+     */
+    private MessageChannelUnion replyChannel(int index) {
+        long channelId = 1_000_000L + index;
+        return Stubs.stub(MessageChannelUnion.class, (method, args) -> {
+            switch (method) {
+                case "getIdLong":
+                    return channelId;
+                case "sendMessage":
+                    latencies.compareAndSet(index, 0, Math.max(1, System.nanoTime() - scheduled[index]));
+                    return Stubs.DEFAULT;
+                default:
+                    return Stubs.DEFAULT;
+            }
+        });
+    }
+    
+    /**
+     * Wait for outstanding command replies
+     * @return The number of commands that never got a reply
+     */
+    private long drain(int total, long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (true) {
+            long unanswered = 0;
+            for (int i = 0; i < total; i++) {
+                if (latencies.get(i) == 0) unanswered++;
+            }
+            if (unanswered == 0 || System.nanoTime() > deadline) {
+                return unanswered;
+            }
+            Thread.sleep(100);
+        }
+    }
+    
+    private void report(PluginHarness harness, int total, long sendNanos, long unanswered) {
+        System.out.printf(Locale.ROOT, "Offered %d/s, achieved %.0f/s%n", rate, total * 1e9 / sendNanos);
+        System.out.printf(Locale.ROOT, "%-8s %9s %10s %10s %10s %10s%n", "kind", "count", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (int kind = 0; kind < KINDS.length; kind++) {
+            long[] samples = new long[total];
+            int count = 0;
+            for (int i = 0; i < total; i++) {
+                long latency = latencies.get(i);
+                if (kinds[i] == kind && latency > 0) {
+                    samples[count++] = latency;
+                }
+            }
+            if (count == 0) continue;
+            Arrays.sort(samples, 0, count);
+            System.out.printf(Locale.ROOT, "%-8s %9d %10.3f %10.3f %10.3f %10.3f%n", KINDS[kind], count,
+                    quantile(samples, count, 0.5), quantile(samples, count, 0.99),
+                    quantile(samples, count, 0.999), samples[count - 1] / 1e6);
+        }
+        
+        System.out.println("Dropped work:");
+        System.out.printf(Locale.ROOT, "  commands without a reply: %d%n", unanswered);
+        for (Map.Entry<String, CommandMetrics> entry : harness.getPlugin().getMetrics().getCommands().entrySet()) {
+            CommandMetrics command = entry.getValue();
+            System.out.printf(Locale.ROOT, "  %s: %d rate limited, %d refused as busy, %d failed, %d errors%n", entry.getKey(),
+                    command.getRateLimited().sum(), command.getRejected().sum(),
+                    command.getFailed().sum(), command.getErrors().sum());
+        }
+        AuditLogWriter auditLog = harness.getPlugin().getWhitelistManager().getAuditLog();
+        System.out.printf(Locale.ROOT, "  audit entries dropped: %d%n", auditLog.getDropped());
+        
+        ReplyDispatcher replies = harness.getPlugin().getDiscordCommandManager().getReplyDispatcher();
+        System.out.printf(Locale.ROOT, "Replies: %d queued, %d REST calls%n", replies.getMessagesQueued(), replies.getRestCalls());
+    }
+    
+    private static double quantile(long[] sorted, int count, double quantile) {
+        int index = (int) Math.min(count - 1, Math.ceil(quantile * count) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
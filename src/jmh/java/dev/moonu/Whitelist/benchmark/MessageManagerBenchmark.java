@@ -0,0 +1,60 @@
+package dev.moonu.Whitelist.benchmark;
+
+import dev.moonu.Whitelist.MessageManager;
+import dev.moonu.Whitelist.PluginHarness;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MessageManager#getMessage} with no, one and four placeholders
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageManagerBenchmark {
+    private PluginHarness harness;
+    private MessageManager messageManager;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        harness = new PluginHarness(0, BenchmarkConfig.YAML);
+        messageManager = harness.getPlugin().getMessageManager();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        harness.close();
+    }
+    
+    @Benchmark
+    public String noPlaceholders() {
+        return messageManager.getMessage("discord.no_permission");
+    }
+    
+    @Benchmark
+    public String onePlaceholder() {
+        return messageManager.getMessage("discord.cooldown", "seconds", "12");
+    }
+    
+    @Benchmark
+    public String fourPlaceholders() {
+        return messageManager.getMessage("discord.bulk_removed",
+                "changed", "120", "unchanged", "3", "unknown", "1", "invalid", "0");
+    }
+}
@@ -0,0 +1,127 @@
+package dev.moonu.Whitelist.benchmark;
+
+import org.bukkit.OfflinePlayer;
+import org.bukkit.Server;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+
+import java.lang.reflect.Constructor;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * A Bukkit server holding nothing but an in-memory whitelist.
+ * Players get offline-mode UUIDs and tasks handed to the scheduler run immediately on the calling thread,
+ * so the measured cost is the plugin's own.
+ */
+public final class StubServer {
+    private final Logger logger = Logger.getLogger("StubServer");
+    private final Map<UUID, OfflinePlayer> players = new ConcurrentHashMap<>();
+    private final Set<UUID> whitelist = ConcurrentHashMap.newKeySet();
+    private final Server server;
+    private final BukkitScheduler scheduler;
+    private volatile Plugin plugin;
+    private volatile long lookupDelayMillis;
+    
+    public StubServer() {
+        this.scheduler = Stubs.stub(BukkitScheduler.class, (method, args) -> {
+            if (method.startsWith("runTask")) {
+                ((Runnable) args[1]).run();
+                return null;
+            }
+            return Stubs.DEFAULT;
+        });
+        this.server = Stubs.stub(Server.class, this::answer);
+    }
+    
+    private Object answer(String method, Object[] args) throws Exception {
+        switch (method) {
+            case "getLogger":
+                return logger;
+            case "getScheduler":
+                return scheduler;
+            case "getOnlineMode":
+                return false;
+            case "getOfflinePlayer":
+                if (args[0] instanceof UUID) {
+                    return player((UUID) args[0], null);
+                }
+                if (lookupDelayMillis > 0) {
+                    // Stands in for the Mojang profile request a real server makes for an unknown name
+                    Thread.sleep(lookupDelayMillis);
+                }
+                return player((String) args[0]);
+            case "getWhitelistedPlayers":
+                Set<OfflinePlayer> whitelisted = new HashSet<>();
+                for (UUID uniqueId : whitelist) {
+                    whitelisted.add(players.get(uniqueId));
+                }
+                return whitelisted;
+            case "getPluginCommand":
+                return pluginCommand((String) args[0]);
+            default:
+                return Stubs.DEFAULT;
+        }
+    }
+    
+    private PluginCommand pluginCommand(String name) throws Exception {
+        Constructor<PluginCommand> constructor = PluginCommand.class.getDeclaredConstructor(String.class, Plugin.class);
+        constructor.setAccessible(true);
+        return constructor.newInstance(name.substring(name.indexOf(':') + 1), plugin);
+    }
+    
+    /**
+     * Get the player with a name, creating it on first use
+     */
+    public OfflinePlayer player(String name) {
+        return player(UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8)), name);
+    }
+    
+    private OfflinePlayer player(UUID uniqueId, String name) {
+        return players.computeIfAbsent(uniqueId, id -> Stubs.stub(OfflinePlayer.class, (method, args) -> {
+            switch (method) {
+                case "getUniqueId":
+                    return id;
+                case "getName":
+                    return name;
+                case "isWhitelisted":
+                    return whitelist.contains(id);
+                case "setWhitelisted":
+                    if ((Boolean) args[0]) whitelist.add(id); else whitelist.remove(id);
+                    return null;
+                default:
+                    return Stubs.DEFAULT;
+            }
+        }));
+    }
+    
+    /**
+     * Whitelist {@code count} players named {@code player0}, {@code player1}, ...
+     */
+    public void fillWhitelist(int count) {
+        for (int i = 0; i < count; i++) {
+            player("player" + i).setWhitelisted(true);
+        }
+    }
+    
+    /**
+     * Delay name lookups by this long, 0 to answer immediately
+     */
+    public void setLookupDelayMillis(long lookupDelayMillis) {
+        this.lookupDelayMillis = lookupDelayMillis;
+    }
+    
+    public void setPlugin(Plugin plugin) {
+        this.plugin = plugin;
+    }
+    
+    public Server getServer() {
+        return server;
+    }
+}
@@ -0,0 +1,78 @@
+package dev.moonu.Whitelist.benchmark;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Interface stubs built on dynamic proxies, so the benchmarks need no mocking library.
+ * Unanswered calls return zero, false, an empty string or, for interface return types, another stub,
+ * which lets fluent chains such as {@code channel.sendMessage(text).queue()} run as no-ops.
+ */
+public final class Stubs {
+    /**
+     * Returned by an {@link Answer} to fall back to the default value
+     */
+    public static final Object DEFAULT = new Object();
+    private static final Object[] NO_ARGS = new Object[0];
+    
+    private Stubs() {
+    }
+    
+    /**
+     * Answers calls made on a stub
+     */
+    @FunctionalInterface
+    public interface Answer {
+        Object answer(String method, Object[] args) throws Throwable;
+    }
+    
+    /**
+     * Create a stub that answers every call with its default value
+     */
+    public static <T> T stub(Class<T> type) {
+        return stub(type, (method, args) -> DEFAULT);
+    }
+    
+    /**
+     * Create a stub that asks {@code answer} first
+     * @param type The interface to implement
+     * @param answer Answers calls by method name, or returns {@link #DEFAULT}
+     * @return The stub
+     */
+    public static <T> T stub(Class<T> type, Answer answer) {
+        return type.cast(Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Object[] arguments = args == null ? NO_ARGS : args;
+            if (method.getDeclaringClass() == Object.class) {
+                return objectMethod(type, proxy, method, arguments);
+            }
+            Object result = answer.answer(method.getName(), arguments);
+            return result != DEFAULT ? result : defaultValue(method.getReturnType());
+        }));
+    }
+    
+    private static Object objectMethod(Class<?> type, Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return type.getSimpleName() + " stub";
+        }
+    }
+    
+    private static Object defaultValue(Class<?> type) {
+        if (type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == long.class) return 0L;
+        if (type == int.class) return 0;
+        if (type == double.class) return 0.0;
+        if (type == float.class) return 0.0f;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        if (type == char.class) return (char) 0;
+        if (type == String.class) return "";
+        if (type.isInterface()) return stub(type);
+        return null;
+    }
+}
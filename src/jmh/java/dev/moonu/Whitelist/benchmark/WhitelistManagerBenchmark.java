@@ -0,0 +1,87 @@
+package dev.moonu.Whitelist.benchmark;
+
+import dev.moonu.Whitelist.PluginHarness;
+import dev.moonu.Whitelist.WhitelistManager;
+import dev.moonu.Whitelist.WhitelistResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link WhitelistManager} add, remove and list against a stub server whitelist of 1k to 100k players.
+ * Adds and removes go through the lookup executor and the (inline) main-thread hop, like a Discord command does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WhitelistManagerBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int size;
+    
+    private PluginHarness harness;
+    private WhitelistManager whitelistManager;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        harness = new PluginHarness(size, BenchmarkConfig.YAML);
+        whitelistManager = harness.getPlugin().getWhitelistManager();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        harness.close();
+    }
+    
+    /**
+     * Add a new player and remove them again, leaving the whitelist as it was
+     */
+    @Benchmark
+    public WhitelistResult addThenRemove() {
+        whitelistManager.addToWhitelist("newcomer").join();
+        return whitelistManager.removeFromWhitelist("newcomer").join();
+    }
+    
+    /**
+     * Add a player who is already whitelisted
+     */
+    @Benchmark
+    public WhitelistResult addExisting() {
+        return whitelistManager.addToWhitelist("player0").join();
+    }
+    
+    /**
+     * Remove a player who is not whitelisted
+     */
+    @Benchmark
+    public WhitelistResult removeMissing() {
+        return whitelistManager.removeFromWhitelist("stranger").join();
+    }
+    
+    @Benchmark
+    public List<String> sortedNames() {
+        return whitelistManager.getSortedWhitelistedNames();
+    }
+    
+    @Benchmark
+    public void forEachName(Blackhole blackhole) {
+        whitelistManager.forEachWhitelistedName(blackhole::consume);
+    }
+}
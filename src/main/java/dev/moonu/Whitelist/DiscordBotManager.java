@@ -6,8 +6,9 @@ import net.dv8tion.jda.api.JDABuilder;
 import net.dv8tion.jda.api.requests.GatewayIntent;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Manages the Discord bot connection and initialization
@@ -16,6 +17,8 @@ public class DiscordBotManager {
     private final Main plugin;
     private final MessageManager messageManager;
     private JDA jda;
+    private String sessionToken;
+    private Set<GatewayIntent> sessionIntents = EnumSet.noneOf(GatewayIntent.class);
     
     public DiscordBotManager(Main plugin, MessageManager messageManager) {
         this.plugin = plugin;
@@ -33,27 +36,48 @@ public class DiscordBotManager {
             return;
         }
         
+        Set<GatewayIntent> intents = commandManager.getRequiredIntents();
         try {
-            jda = JDABuilder.createDefault(token,
-                            GatewayIntent.GUILD_MESSAGES,
-                            GatewayIntent.MESSAGE_CONTENT)
-                    .disableCache(CacheFlag.VOICE_STATE, CacheFlag.EMOJI, CacheFlag.STICKER, CacheFlag.SCHEDULED_EVENTS)
-                    .addEventListeners(commandManager)
-                    .build();
+            // Slash commands arrive as interactions, so that mode needs no message intents nor member/channel caches
+            JDABuilder builder = !intents.contains(GatewayIntent.MESSAGE_CONTENT)
+                    ? JDABuilder.createLight(token, intents)
+                    : JDABuilder.createDefault(token, intents)
+                            .disableCache(CacheFlag.VOICE_STATE, CacheFlag.EMOJI, CacheFlag.STICKER, CacheFlag.SCHEDULED_EVENTS);
+            jda = builder.addEventListeners(commandManager).build();
+            sessionToken = token;
+            // EnumSet.copyOf rejects an empty set that is not itself an EnumSet
+            sessionIntents = EnumSet.noneOf(GatewayIntent.class);
+            sessionIntents.addAll(intents);
         } catch (Exception e) {
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("error", e.getMessage());
-            plugin.getLogger().severe(messageManager.getMessage("console.bot_start_failed", placeholders));
+            plugin.getLogger().severe(messageManager.getMessage("console.bot_start_failed", "error", e.getMessage()));
         }
     }
     
+    /**
+     * Check whether a new configuration needs a fresh gateway session.
+     * Only the token and the gateway intents are fixed for the lifetime of a session;
+     * everything else can be swapped on the running instance.
+     * @param token The configured bot token
+     * @param intents The gateway intents the listener needs
+     * @return true if the bot must reconnect
+     */
+    public boolean requiresRestart(String token, Set<GatewayIntent> intents) {
+        return jda == null
+                || jda.getStatus() == JDA.Status.SHUTDOWN
+                || !Objects.equals(sessionToken, token)
+                || !sessionIntents.equals(intents);
+    }
+    
     /**
      * Shutdown the Discord bot
      */
     public void shutdown() {
         if (jda != null) {
             jda.shutdown();
+            jda = null;
         }
+        sessionToken = null;
+        sessionIntents = EnumSet.noneOf(GatewayIntent.class);
     }
     
     /**
@@ -1,10 +1,11 @@
 package dev.moonu.Whitelist;
 
-import net.dv8tion.jda.api.entities.Message;
+import dev.moonu.Whitelist.audit.AuditAction;
+import dev.moonu.Whitelist.discord.Authorization;
+import dev.moonu.Whitelist.discord.CommandTokenizer;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.events.session.ReadyEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
-import org.bukkit.OfflinePlayer;
 
 import java.util.*;
 
@@ -12,43 +13,42 @@ import java.util.*;
  * Handles Discord bot events and commands
  */
 public class DiscordCommandHandler extends ListenerAdapter {
+    private static final int LIST_PAGE_SIZE = 50;
+    
     private final Main plugin;
     private final MessageManager messageManager;
     private final WhitelistManager whitelistManager;
-    private final Map<String, Boolean> authorizedUserIds;
+    private final Authorization authorization;
     private final String commandPrefix;
     
     public DiscordCommandHandler(Main plugin, MessageManager messageManager, WhitelistManager whitelistManager, 
-                               Map<String, Boolean> authorizedUserIds, String commandPrefix) {
+                               Authorization authorization, String commandPrefix) {
         this.plugin = plugin;
         this.messageManager = messageManager;
         this.whitelistManager = whitelistManager;
-        this.authorizedUserIds = authorizedUserIds;
+        this.authorization = authorization;
         this.commandPrefix = commandPrefix;
     }
     
     @Override
     public void onReady(ReadyEvent event) {
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put("botname", event.getJDA().getSelfUser().getName());
-        plugin.getLogger().info(messageManager.getMessage("console.bot_ready", placeholders));
+        plugin.getLogger().info(messageManager.getMessage("console.bot_ready", "botname", event.getJDA().getSelfUser().getName()));
     }
     
     @Override
     public void onMessageReceived(MessageReceivedEvent event) {
         if (event.getAuthor().isBot()) return;
         
-        Message message = event.getMessage();
-        String content = message.getContentRaw().trim().toLowerCase();
-        String[] fullArgs = content.split("\\s+");
-        
-        if (fullArgs.length < 2) return;
+        String content = event.getMessage().getContentRaw();
         
-        // Check if it starts with a command prefix and is a whitelist command
-        if (!content.startsWith(commandPrefix)) return;
+        // Check if it starts with a command prefix and is a whitelist command, without copying the content
+        int nameStart = CommandTokenizer.matchPrefix(content, commandPrefix);
+        if (nameStart < 0) return;
+        int nameEnd = CommandTokenizer.tokenEnd(content, nameStart);
+        if (!isWhitelistCommand(content, nameStart, nameEnd)) return;
         
-        String command = fullArgs[0].substring(commandPrefix.length()).toLowerCase();
-        if (!command.equals("wl") && !command.equals("whitelist")) return;
+        String[] fullArgs = CommandTokenizer.split(content, nameEnd);
+        if (fullArgs.length < 1) return;
         
         // Check authorization
         if (!isAuthorized(event)) {
@@ -56,8 +56,8 @@ public class DiscordCommandHandler extends ListenerAdapter {
             return;
         }
         
-        String action = fullArgs[1].toLowerCase();
-        List<String> args = Arrays.asList(fullArgs).subList(2, fullArgs.length);
+        String action = fullArgs[0].toLowerCase();
+        List<String> args = Arrays.asList(fullArgs).subList(1, fullArgs.length);
         
         // Handle different commands
         switch (action) {
@@ -76,13 +76,22 @@ public class DiscordCommandHandler extends ListenerAdapter {
         }
     }
     
+    /**
+     * Check whether a region of the content is the whitelist command name or its alias
+     */
+    private boolean isWhitelistCommand(String content, int from, int to) {
+        int length = to - from;
+        return (length == 2 && content.regionMatches(true, from, "wl", 0, 2))
+                || (length == 9 && content.regionMatches(true, from, "whitelist", 0, 9));
+    }
+    
     /**
      * Check if the user is authorized to use whitelist commands
      * @param event The message event
      * @return true if authorized, false otherwise
      */
     private boolean isAuthorized(MessageReceivedEvent event) {
-        return this.authorizedUserIds.containsKey(event.getAuthor().getId());
+        return authorization.isAuthorized(event.getAuthor(), event.getMember());
     }
     
     /**
@@ -97,18 +106,26 @@ public class DiscordCommandHandler extends ListenerAdapter {
         }
         
         String username = args.get(0);
-        boolean added = whitelistManager.addToWhitelist(username);
-        
-        if (added) {
-            whitelistManager.logWhitelistAction("ADD", username, event.getAuthor().getName(), event.getAuthor().getId());
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("player", username);
-            event.getChannel().sendMessage(messageManager.getMessage("discord.player_added", placeholders)).queue();
-        } else {
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("player", username);
-            event.getChannel().sendMessage(messageManager.getMessage("discord.player_already_whitelisted", placeholders)).queue();
-        }
+        whitelistManager.addToWhitelist(username).whenComplete((result, error) -> {
+            if (error != null) {
+                plugin.getLogger().severe("Error executing Discord command 'add': " + error.getMessage());
+                event.getChannel().sendMessage(messageManager.getMessage("discord.command_error")).queue();
+                return;
+            }
+            
+            switch (result) {
+                case CHANGED:
+                    whitelistManager.logWhitelistAction(AuditAction.ADD, username, event.getAuthor().getName(), event.getAuthor().getIdLong());
+                    event.getChannel().sendMessage(messageManager.getMessage("discord.player_added", "player", username)).queue();
+                    break;
+                case UNCHANGED:
+                    event.getChannel().sendMessage(messageManager.getMessage("discord.player_already_whitelisted", "player", username)).queue();
+                    break;
+                case UNKNOWN_PLAYER:
+                    event.getChannel().sendMessage(messageManager.getMessage("discord.player_not_found", "player", username)).queue();
+                    break;
+            }
+        });
     }
     
     /**
@@ -123,33 +140,46 @@ public class DiscordCommandHandler extends ListenerAdapter {
         }
         
         String username = args.get(0);
-        boolean removed = whitelistManager.removeFromWhitelist(username);
-        
-        if (removed) {
-            whitelistManager.logWhitelistAction("REMOVE", username, event.getAuthor().getName(), event.getAuthor().getId());
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("player", username);
-            event.getChannel().sendMessage(messageManager.getMessage("discord.player_removed", placeholders)).queue();
-        } else {
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("player", username);
-            event.getChannel().sendMessage(messageManager.getMessage("discord.player_not_whitelisted", placeholders)).queue();
-        }
+        whitelistManager.removeFromWhitelist(username).whenComplete((result, error) -> {
+            if (error != null) {
+                plugin.getLogger().severe("Error executing Discord command 'remove': " + error.getMessage());
+                event.getChannel().sendMessage(messageManager.getMessage("discord.command_error")).queue();
+                return;
+            }
+            
+            switch (result) {
+                case CHANGED:
+                    whitelistManager.logWhitelistAction(AuditAction.REMOVE, username, event.getAuthor().getName(), event.getAuthor().getIdLong());
+                    event.getChannel().sendMessage(messageManager.getMessage("discord.player_removed", "player", username)).queue();
+                    break;
+                case UNCHANGED:
+                    event.getChannel().sendMessage(messageManager.getMessage("discord.player_not_whitelisted", "player", username)).queue();
+                    break;
+                case UNKNOWN_PLAYER:
+                    event.getChannel().sendMessage(messageManager.getMessage("discord.player_not_found", "player", username)).queue();
+                    break;
+            }
+        });
     }
     
     /**
-     * Handle the list command
+     * Handle the list command, showing the first page of the sorted whitelist
      * @param event The message event
      */
     private void handleListCommand(MessageReceivedEvent event) {
-        String list = String.join(", ", whitelistManager.getWhitelistedPlayers().stream()
-                .map(OfflinePlayer::getName)
-                .filter(Objects::nonNull)
-                .toList());
+        List<String> names = whitelistManager.getSortedWhitelistedNames();
+        if (names.isEmpty()) {
+            event.getChannel().sendMessage(messageManager.getMessage("discord.whitelist_empty")).queue();
+            return;
+        }
         
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put("list", list.isEmpty() ? "No players whitelisted" : list);
-        event.getChannel().sendMessage(messageManager.getMessage("discord.whitelist_list", placeholders)).queue();
+        int pages = (names.size() + LIST_PAGE_SIZE - 1) / LIST_PAGE_SIZE;
+        String list = String.join(", ", names.subList(0, Math.min(LIST_PAGE_SIZE, names.size())));
+        event.getChannel().sendMessage(messageManager.getMessage("discord.whitelist_page",
+                "page", "1",
+                "pages", String.valueOf(pages),
+                "total", String.valueOf(names.size()),
+                "list", list)).queue();
     }
     
     /**
@@ -157,8 +187,6 @@ public class DiscordCommandHandler extends ListenerAdapter {
      * @param event The message event
      */
     private void handleInvalidCommand(MessageReceivedEvent event) {
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put("prefix", commandPrefix);
-        event.getChannel().sendMessage(messageManager.getMessage("discord.invalid_command", placeholders)).queue();
+        event.getChannel().sendMessage(messageManager.getMessage("discord.invalid_command", "prefix", commandPrefix)).queue();
     }
 }
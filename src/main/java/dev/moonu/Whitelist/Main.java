@@ -1,7 +1,14 @@
 package dev.moonu.Whitelist;
 
+import dev.moonu.Whitelist.cluster.ClusterFollower;
+import dev.moonu.Whitelist.cluster.ClusterLeader;
+import dev.moonu.Whitelist.cluster.ClusterSettings;
 import dev.moonu.Whitelist.commands.GameCommandLoader;
 import dev.moonu.Whitelist.discord.DiscordCommandManager;
+import dev.moonu.Whitelist.discord.DiscordSettings;
+import dev.moonu.Whitelist.metrics.MetricsHttpServer;
+import dev.moonu.Whitelist.metrics.PluginMetrics;
+import dev.moonu.Whitelist.storage.PreLoginWhitelistListener;
 import net.dv8tion.jda.api.*;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
@@ -9,11 +16,14 @@ import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
 import java.util.*;
 
 public class Main extends JavaPlugin {
-    private final Map<String, Boolean> authorizedUserIds = new HashMap<>();
     private String commandPrefix;
+    private DiscordSettings discordSettings;
+    private ClusterSettings clusterSettings;
+    private int bulkMaxNames;
     private FileConfiguration config;
     
     // Manager classes
@@ -22,7 +32,11 @@ public class Main extends JavaPlugin {
     private DiscordBotManager discordBotManager;
     private DiscordCommandManager discordCommandManager;
     private GameCommandLoader gameCommandLoader;
-
+    private final PluginMetrics metrics = new PluginMetrics();
+    private MetricsHttpServer metricsServer;
+    private ClusterLeader clusterLeader;
+    private ClusterFollower clusterFollower;
+    
     @Override
     public void onEnable() {
         // Initialize managers
@@ -32,72 +46,180 @@ public class Main extends JavaPlugin {
         gameCommandLoader = new GameCommandLoader(this);
         
         loadConfiguration();
+        whitelistManager.seedIndex();
+        registerPreLoginCheck();
+        messageManager.startWatching();
         
-        // Initialize discord command manager with the configured prefix
-        discordCommandManager = new DiscordCommandManager(this, messageManager, commandPrefix);
+        // Initialize discord command manager with the configured Discord settings
+        discordCommandManager = new DiscordCommandManager(this, messageManager, discordSettings);
         
-        startDiscordBot();
+        // The cluster role is fixed until the next restart
+        clusterSettings = ClusterSettings.load(config);
+        startCluster();
+        
+        // Followers take their whitelist from the leader and leave the bot to it
+        if (clusterSettings.getRole() != ClusterSettings.Role.FOLLOWER) {
+            startDiscordBot();
+        }
         registerCommands();
+        registerMetrics();
+        startMetricsServer();
     }
 
     @Override
     public void onDisable() {
+        stopMetricsServer();
+        if (messageManager != null) {
+            messageManager.stopWatching();
+        }
+        stopCluster();
+        if (discordCommandManager != null) {
+            discordCommandManager.shutdown();
+        }
         if (discordBotManager != null) {
             discordBotManager.shutdown();
         }
+        if (whitelistManager != null) {
+            whitelistManager.shutdown();
+        }
     }
 
     private void loadConfiguration() {
         saveDefaultConfig();
         config = getConfig();
 
-        commandPrefix = config.getString("discord.prefix", "!");
+        bulkMaxNames = config.getInt("settings.bulk_max_names", 500);
         String locale = config.getString("settings.locale", "en");
         
         // Load messages with the specified locale
         messageManager.loadConfiguration(config, locale);
         
-        authorizedUserIds.clear();
-        for (String roleId : config.getStringList("discord.authorized_user_ids")) {
-            authorizedUserIds.put(roleId, true);
-        }
+        discordSettings = DiscordSettings.load(config, messageManager, getLogger());
+        commandPrefix = discordSettings.getCommandPrefix();
     }
 
     private void startDiscordBot() {
         String token = config.getString("discord.token");
         
         // Register Discord commands
-        discordCommandManager.registerCommands(authorizedUserIds);
+        discordCommandManager.reconfigure(discordSettings);
         
         // Start the bot
         discordBotManager.startBot(token, discordCommandManager);
     }
     
+    /**
+     * Check joins against the plugin's own whitelist when the server whitelist is not kept in sync.
+     * The storage is fixed until the next restart.
+     */
+    private void registerPreLoginCheck() {
+        if (!whitelistManager.usesPreLoginCheck()) return;
+        getServer().getPluginManager().registerEvents(new PreLoginWhitelistListener(whitelistManager, messageManager), this);
+        if (getServer().hasWhitelist()) {
+            getLogger().warning(messageManager.getMessage("console.storage_prelogin_enabled"));
+        }
+    }
+    
+    /**
+     * Start the cluster leader or follower for the configured role
+     */
+    private void startCluster() {
+        if (clusterSettings.getRole() == ClusterSettings.Role.NONE) return;
+        if (clusterSettings.getSecret().isEmpty()) {
+            getLogger().severe(messageManager.getMessage("console.cluster_secret_missing"));
+            return;
+        }
+        
+        if (clusterSettings.getRole() == ClusterSettings.Role.LEADER) {
+            ClusterLeader leader = new ClusterLeader(clusterSettings, whitelistManager, messageManager, getLogger(), getDataFolder());
+            try {
+                leader.start();
+                clusterLeader = leader;
+            } catch (IOException e) {
+                leader.stop();
+                getLogger().severe(messageManager.getMessage("console.cluster_start_failed", "error", e.getMessage()));
+            }
+        } else {
+            clusterFollower = new ClusterFollower(clusterSettings, whitelistManager, messageManager, getLogger(), getDataFolder());
+            clusterFollower.start();
+        }
+    }
+    
+    private void stopCluster() {
+        if (clusterLeader != null) {
+            clusterLeader.stop();
+            clusterLeader = null;
+        }
+        if (clusterFollower != null) {
+            clusterFollower.stop();
+            clusterFollower = null;
+        }
+    }
+    
     private void registerCommands() {
         // Register game commands
         gameCommandLoader.registerCommands();
     }
     
     /**
-     * Reload the plugin configuration and restart components
+     * Register gauges for the queues and caches owned by the managers
      */
-    public void reloadPlugin() {
-        // Shutdown Discord bot
-        if (discordBotManager != null) {
-            discordBotManager.shutdown();
-        }
+    private void registerMetrics() {
+        whitelistManager.registerMetrics(metrics.getRegistry());
+        discordCommandManager.registerMetrics(metrics.getRegistry());
+    }
+    
+    /**
+     * Start the local metrics endpoint if settings.metrics.http_enabled is set
+     */
+    private void startMetricsServer() {
+        if (!config.getBoolean("settings.metrics.http_enabled", false)) return;
         
+        int port = config.getInt("settings.metrics.http_port", 9464);
+        MetricsHttpServer server = new MetricsHttpServer(metrics.getRegistry(), port);
+        try {
+            server.start();
+            metricsServer = server;
+            getLogger().info(messageManager.getMessage("console.metrics_started", "port", String.valueOf(port)));
+        } catch (IOException e) {
+            server.stop();
+            getLogger().warning(messageManager.getMessage("console.metrics_start_failed",
+                    "port", String.valueOf(port), "error", e.getMessage()));
+        }
+    }
+    
+    private void stopMetricsServer() {
+        if (metricsServer != null) {
+            metricsServer.stop();
+            metricsServer = null;
+        }
+    }
+    
+    /**
+     * Reload the plugin configuration.
+     * Prefix, authorized users and roles, locale and command registrations are swapped on the running bot;
+     * the gateway session is only restarted when the token or required intents change.
+     * Cluster settings only take effect on restart.
+     */
+    public void reloadPlugin() {
         // Reload configuration
         reloadConfig();
         loadConfiguration();
         
-        // Recreate discord command manager with updated prefix
-        discordCommandManager = new DiscordCommandManager(this, messageManager, commandPrefix);
+        // Swap in the new prefix and command table on the live listener
+        discordCommandManager.reconfigure(discordSettings);
+        
+        String token = config.getString("discord.token");
+        if (clusterSettings.getRole() != ClusterSettings.Role.FOLLOWER
+                && discordBotManager.requiresRestart(token, discordCommandManager.getRequiredIntents())) {
+            discordBotManager.shutdown();
+            discordBotManager.startBot(token, discordCommandManager);
+        }
         
-        // Restart Discord bot
-        startDiscordBot();
+        // Rebind the metrics endpoint in case it was toggled or moved
+        stopMetricsServer();
+        startMetricsServer();
     }
-
     
     // Getter methods for managers
     public MessageManager getMessageManager() {
@@ -112,9 +234,35 @@ public class Main extends JavaPlugin {
         return discordBotManager;
     }
     
+    public DiscordCommandManager getDiscordCommandManager() {
+        return discordCommandManager;
+    }
+    
+    public PluginMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Get the cluster leader, or null unless this server leads a cluster
+     */
+    public ClusterLeader getClusterLeader() {
+        return clusterLeader;
+    }
+    
+    /**
+     * Get the cluster follower, or null unless this server follows a cluster leader
+     */
+    public ClusterFollower getClusterFollower() {
+        return clusterFollower;
+    }
+    
     public String getCommandPrefix() {
         return commandPrefix;
     }
+    
+    public int getBulkMaxNames() {
+        return bulkMaxNames;
+    }
 
     @Override
     public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
@@ -1,19 +1,84 @@
 package dev.moonu.Whitelist;
 
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Handles all message loading and formatting for the plugin
+ * Handles all message loading and formatting for the plugin.
+ * Messages are compiled once at load into {@link MessageTemplate}s held in a flat, immutable table keyed by path.
+ * The table is swapped atomically, both on reload and when the locale file changes on disk,
+ * so readers on any thread always see a complete table. Both swaps go through one lock, and a table
+ * compiled by the watcher is dropped if a reload happened in the meantime.
  */
 public class MessageManager {
+    private static final Map<String, String> CONSOLE_MESSAGES = Map.ofEntries(
+            Map.entry("console.bot_ready", "Successfully logged in as {botname}!"),
+            Map.entry("console.player_added_log", "{player} has been added to server whitelist."),
+            Map.entry("console.player_removed_log", "{player} has been removed from server whitelist."),
+            Map.entry("console.bulk_applied_log", "Bulk {action} applied: {changed} changed, {unchanged} unchanged."),
+            Map.entry("console.token_missing", "Discord bot token is missing in config.yml"),
+            Map.entry("console.bot_start_failed", "Failed to start Discord bot: {error}"),
+            Map.entry("console.slash_update_failed", "Failed to update slash commands: {error}"),
+            Map.entry("console.invalid_discord_id", "Ignoring invalid Discord ID '{id}' in {path}"),
+            Map.entry("console.log_setup_success", "Whitelist logging has been set up successfully"),
+            Map.entry("console.log_file_creation_failed", "Could not create whitelist_log.txt: {error}"),
+            Map.entry("console.log_write_failed", "Failed to write to whitelist_log.txt: {error}"),
+            Map.entry("console.log_queue_full", "Audit log queue is full; dropped {count} whitelist_log.txt entries"),
+            Map.entry("console.locale_reloaded", "Reloaded messages from {file}"),
+            Map.entry("console.locale_reload_failed", "Ignoring change to {file}: it has no messages section (invalid YAML?)"),
+            Map.entry("console.locale_watch_failed", "Could not watch locale files for changes: {error}"),
+            Map.entry("console.locale_watch_close_failed", "Could not close locale watcher: {error}"),
+            Map.entry("console.metrics_started", "Serving metrics on http://127.0.0.1:{port}/metrics"),
+            Map.entry("console.metrics_start_failed", "Could not serve metrics on port {port}: {error}"),
+            Map.entry("console.cluster_secret_missing", "cluster.secret is empty; cluster mode is disabled"),
+            Map.entry("console.cluster_start_failed", "Could not start the cluster leader: {error}"),
+            Map.entry("console.cluster_listening", "Cluster leader listening on {host}:{port}"),
+            Map.entry("console.cluster_follower_joined", "Cluster follower {address} joined at sequence {sequence}"),
+            Map.entry("console.cluster_follower_rejected", "Rejected cluster follower {address}: {reason}"),
+            Map.entry("console.cluster_link_failed", "Cluster link to {address} failed: {error}"),
+            Map.entry("console.cluster_connected", "Following cluster leader {host}:{port} from sequence {sequence}"),
+            Map.entry("console.cluster_disconnected", "Lost the cluster leader ({error}); retrying in {retry} ms"),
+            Map.entry("console.cluster_rejected", "The cluster leader refused this server: {reason}"),
+            Map.entry("console.cluster_snapshot", "Applied a cluster snapshot of {count} players at sequence {sequence}"),
+            Map.entry("console.cluster_position_load_failed", "Could not load cluster feed position, a full snapshot will be requested: {error}"),
+            Map.entry("console.cluster_position_save_failed", "Could not save cluster feed position: {error}"),
+            Map.entry("console.name_cache_load_failed", "Could not load name cache snapshot: {error}"),
+            Map.entry("console.name_cache_save_failed", "Could not save name cache snapshot: {error}"),
+            Map.entry("console.storage_open_failed", "Could not open whitelist storage, using the server whitelist instead: {error}"),
+            Map.entry("console.storage_write_failed", "Failed to write whitelist changes to whitelist.db after several attempts, they are only kept in memory: {error}"),
+            Map.entry("console.link_load_failed", "Could not read links.dat: {error}"),
+            Map.entry("console.link_write_failed", "Failed to write to links.dat; the latest Discord account link changes will be lost on restart: {error}"),
+            Map.entry("console.expired_log", "Removed {count} expired whitelist entries"),
+            Map.entry("console.expiry_load_failed", "Could not load expiries.dat; time-limited entries will not expire: {error}"),
+            Map.entry("console.expiry_save_failed", "Failed to write to expiries.dat: {error}"),
+            Map.entry("console.storage_prelogin_enabled", "The plugin checks joins itself; turn the server whitelist off (white-list=false) so it does not also refuse players"));
+    private static final long RELOAD_DEBOUNCE_MILLIS = 250;
+    
     private final JavaPlugin plugin;
-    private FileConfiguration config;
-    private FileConfiguration localeConfig;
+    private volatile Map<String, MessageTemplate> templates = Map.of();
+    private volatile FileConfiguration config;
+    private volatile String locale;
+    private final Object reloadLock = new Object();
+    private long generation;
+    private WatchService watchService;
+    private Thread watchThread;
     
     public MessageManager(JavaPlugin plugin) {
         this.plugin = plugin;
@@ -25,22 +90,182 @@ public class MessageManager {
      * @param locale The locale to load (e.g., "en", "vi")
      */
     public void loadConfiguration(FileConfiguration config, String locale) {
-        this.config = config;
-        loadLocaleFile(locale);
+        synchronized (reloadLock) {
+            generation++;
+            this.config = config;
+            this.locale = locale;
+            templates = compileTemplates(config, locale);
+        }
+    }
+    
+    /**
+     * Watch the data folder and recompile messages whenever the active locale file changes.
+     * Parsing happens on the watcher thread; the new table replaces the old one in a single write.
+     */
+    public void startWatching() {
+        if (watchThread != null) {
+            return;
+        }
+        
+        try {
+            Path folder = plugin.getDataFolder().toPath();
+            watchService = folder.getFileSystem().newWatchService();
+            folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            plugin.getLogger().warning(getMessage("console.locale_watch_failed", "error", e.getMessage()));
+            return;
+        }
+        
+        watchThread = new Thread(this::watchLoop, "DiscordWhitelist-LocaleWatcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+    
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean localeChanged = pollLocaleChange(key);
+                if (!localeChanged) {
+                    continue;
+                }
+                
+                // Editors often write a file in several steps; wait for them to settle before parsing
+                WatchKey more;
+                while ((more = watchService.poll(RELOAD_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    pollLocaleChange(more);
+                }
+                reloadLocaleFile();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped by stopWatching()
+        }
+    }
+    
+    private boolean pollLocaleChange(WatchKey key) {
+        String fileName = "locale_" + locale + ".yml";
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object context = event.context();
+            if (context instanceof Path && ((Path) context).getFileName().toString().equals(fileName)) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+    
+    private void reloadLocaleFile() {
+        long expectedGeneration;
+        FileConfiguration currentConfig;
+        String currentLocale;
+        synchronized (reloadLock) {
+            expectedGeneration = generation;
+            currentConfig = config;
+            currentLocale = locale;
+        }
+        
+        String fileName = "locale_" + currentLocale + ".yml";
+        File localeFile = new File(plugin.getDataFolder(), fileName);
+        if (!localeFile.exists()) {
+            return;
+        }
+        if (YamlConfiguration.loadConfiguration(localeFile).getConfigurationSection("messages") == null) {
+            plugin.getLogger().warning(getMessage("console.locale_reload_failed", "file", fileName));
+            return;
+        }
+        
+        Map<String, MessageTemplate> compiled = compileTemplates(currentConfig, currentLocale);
+        synchronized (reloadLock) {
+            // A plugin reload since the snapshot already compiled the newer configuration
+            if (generation != expectedGeneration) {
+                return;
+            }
+            templates = compiled;
+        }
+        plugin.getLogger().info(getMessage("console.locale_reloaded", "file", fileName));
+    }
+    
+    /**
+     * Stop watching locale files
+     */
+    public void stopWatching() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                plugin.getLogger().warning(getMessage("console.locale_watch_close_failed", "error", e.getMessage()));
+            }
+        }
+        watchService = null;
+        watchThread = null;
     }
     
     /**
-     * Load the locale file based on the specified locale
+     * Build the message table. Later sources override earlier ones:
+     * bundled locale defaults, then messages in config.yml, then the locale file in the data folder.
+     * Console messages are fixed English strings.
+     * @param config The main plugin configuration
      * @param locale The locale to load
+     * @return Immutable table of compiled templates keyed by path without the "messages." prefix
      */
-    private void loadLocaleFile(String locale) {
-        File localeFile = new File(plugin.getDataFolder(), "locale_" + locale + ".yml");
+    private Map<String, MessageTemplate> compileTemplates(FileConfiguration config, String locale) {
+        Map<String, String> raw = new HashMap<>();
+        
+        String resourceName = "locale_" + locale + ".yml";
+        InputStream bundled = plugin.getResource(resourceName);
+        if (bundled != null) {
+            collectMessages(YamlConfiguration.loadConfiguration(new InputStreamReader(bundled, StandardCharsets.UTF_8)), raw);
+        }
+        collectMessages(config, raw);
+        
+        File localeFile = new File(plugin.getDataFolder(), resourceName);
         if (localeFile.exists()) {
-            localeConfig = YamlConfiguration.loadConfiguration(localeFile);
+            collectMessages(YamlConfiguration.loadConfiguration(localeFile), raw);
         } else {
             plugin.getLogger().warning("Locale file not found: " + localeFile.getName() + ". Using default messages.");
-            localeConfig = null;
         }
+        
+        raw.putAll(CONSOLE_MESSAGES);
+        
+        Map<String, MessageTemplate> compiled = new HashMap<>(raw.size() * 2);
+        for (Map.Entry<String, String> entry : raw.entrySet()) {
+            compiled.put(entry.getKey(), MessageTemplate.compile(entry.getValue()));
+        }
+        return Map.copyOf(compiled);
+    }
+    
+    private static void collectMessages(ConfigurationSection root, Map<String, String> target) {
+        ConfigurationSection messages = root.getConfigurationSection("messages");
+        if (messages == null) {
+            return;
+        }
+        for (String key : messages.getKeys(true)) {
+            if (messages.isString(key)) {
+                target.put(key, messages.getString(key));
+            }
+        }
+    }
+    
+    /**
+     * Get the compiled template for a message
+     * @param path The message path, e.g. "discord.player_added"
+     * @return The template, or null if no such message is loaded
+     */
+    public MessageTemplate getTemplate(String path) {
+        return templates.get(path);
+    }
+    
+    /**
+     * Get a message with placeholder values given as alternating name/value pairs,
+     * e.g. {@code getMessage("discord.player_added", "player", username)}
+     * @param path The config path to the message
+     * @param keyValues Alternating placeholder names and values
+     * @return The formatted message
+     */
+    public String getMessage(String path, String... keyValues) {
+        MessageTemplate template = templates.get(path);
+        return template != null ? template.render(keyValues) : missingMessage(path);
     }
     
     /**
@@ -50,26 +275,8 @@ public class MessageManager {
      * @return The formatted message
      */
     public String getMessage(String path, Map<String, String> placeholders) {
-        String message;
-        
-        // For console messages, use hardcoded English messages
-        if (path.startsWith("console.")) {
-            message = getConsoleMessage(path);
-        } else {
-            // Try to get from locale file first, then fall back to config
-            if (localeConfig != null && localeConfig.contains("messages." + path)) {
-                message = localeConfig.getString("messages." + path);
-            } else {
-                message = config.getString("messages." + path, "Message not found: " + path);
-            }
-        }
-        
-        if (placeholders != null) {
-            for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-                message = message.replace("{" + entry.getKey() + "}", entry.getValue());
-            }
-        }
-        return message;
+        MessageTemplate template = templates.get(path);
+        return template != null ? template.render(placeholders) : missingMessage(path);
     }
     
     /**
@@ -78,34 +285,11 @@ public class MessageManager {
      * @return The message
      */
     public String getMessage(String path) {
-        return getMessage(path, null);
+        MessageTemplate template = templates.get(path);
+        return template != null ? template.render() : missingMessage(path);
     }
     
-    /**
-     * Get hardcoded console messages in English
-     * @param path The message path
-     * @return The console message
-     */
-    private String getConsoleMessage(String path) {
-        switch (path) {
-            case "console.bot_ready":
-                return "Successfully logged in as {botname}!";
-            case "console.player_added_log":
-                return "{player} has been added to server whitelist.";
-            case "console.player_removed_log":
-                return "{player} has been removed from server whitelist.";
-            case "console.token_missing":
-                return "Discord bot token is missing in config.yml";
-            case "console.bot_start_failed":
-                return "Failed to start Discord bot: {error}";
-            case "console.log_setup_success":
-                return "Whitelist logging has been set up successfully";
-            case "console.log_file_creation_failed":
-                return "Could not create whitelist_log.txt: {error}";
-            case "console.log_write_failed":
-                return "Failed to write to whitelist_log.txt: {error}";
-            default:
-                return "Console message not found: " + path;
-        }
+    private static String missingMessage(String path) {
+        return path.startsWith("console.") ? "Console message not found: " + path : "Message not found: " + path;
     }
 }
@@ -0,0 +1,116 @@
+package dev.moonu.Whitelist;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A message parsed once into literal segments and named placeholder slots.
+ * {@code "Added {player}"} becomes the literals {@code ["Added ", ""]} and the slot {@code ["player"]}.
+ */
+public final class MessageTemplate {
+    private final String[] literals;
+    private final String[] slots;
+    private final int literalLength;
+    
+    private MessageTemplate(String[] literals, String[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+    
+    /**
+     * Parse a message. Text in braces that is a valid placeholder name becomes a slot; everything else is literal.
+     * @param message The raw message
+     * @return The compiled template
+     */
+    public static MessageTemplate compile(String message) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < message.length()) {
+            char c = message.charAt(i);
+            int close = c == '{' ? message.indexOf('}', i + 1) : -1;
+            if (close > i + 1 && isPlaceholderName(message, i + 1, close)) {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                slots.add(message.substring(i + 1, close));
+                i = close + 1;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        literals.add(literal.toString());
+        return new MessageTemplate(literals.toArray(new String[0]), slots.toArray(new String[0]));
+    }
+    
+    private static boolean isPlaceholderName(String message, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = message.charAt(i);
+            if (!(c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Render with placeholder values given as alternating name/value pairs.
+     * Slots without a value are left as {@code {name}}.
+     * @param keyValues Alternating placeholder names and values
+     * @return The rendered message
+     */
+    public String render(String... keyValues) {
+        if (slots.length == 0) {
+            return literals[0];
+        }
+        
+        StringBuilder builder = new StringBuilder(literalLength + slots.length * 16);
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(literals[i]);
+            appendSlot(builder, slots[i], lookup(slots[i], keyValues));
+        }
+        return builder.append(literals[slots.length]).toString();
+    }
+    
+    /**
+     * Render with placeholder values taken from a map. Slots without a value are left as {@code {name}}.
+     * @param placeholders Placeholder values by name, may be null
+     * @return The rendered message
+     */
+    public String render(Map<String, String> placeholders) {
+        if (slots.length == 0) {
+            return literals[0];
+        }
+        
+        StringBuilder builder = new StringBuilder(literalLength + slots.length * 16);
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(literals[i]);
+            appendSlot(builder, slots[i], placeholders == null ? null : placeholders.get(slots[i]));
+        }
+        return builder.append(literals[slots.length]).toString();
+    }
+    
+    private static String lookup(String slot, String[] keyValues) {
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            if (slot.equals(keyValues[i])) {
+                return keyValues[i + 1];
+            }
+        }
+        return null;
+    }
+    
+    private static void appendSlot(StringBuilder builder, String slot, String value) {
+        if (value != null) {
+            builder.append(value);
+        } else {
+            builder.append('{').append(slot).append('}');
+        }
+    }
+}
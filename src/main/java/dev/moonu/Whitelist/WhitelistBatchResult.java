@@ -0,0 +1,43 @@
+package dev.moonu.Whitelist;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk whitelist add or remove
+ */
+public class WhitelistBatchResult {
+    private final List<String> changed;
+    private final List<String> unchanged;
+    private final List<String> unknown;
+    
+    public WhitelistBatchResult(List<String> changed, List<String> unchanged, List<String> unknown) {
+        this.changed = Collections.unmodifiableList(changed);
+        this.unchanged = Collections.unmodifiableList(unchanged);
+        this.unknown = Collections.unmodifiableList(unknown);
+    }
+    
+    /**
+     * Get the usernames whose whitelist state was changed
+     * @return Changed usernames, in request order
+     */
+    public List<String> getChanged() {
+        return changed;
+    }
+    
+    /**
+     * Get the usernames that were already in the requested state
+     * @return Unchanged usernames, in request order
+     */
+    public List<String> getUnchanged() {
+        return unchanged;
+    }
+    
+    /**
+     * Get the usernames that do not belong to any Minecraft account
+     * @return Unknown usernames, in request order
+     */
+    public List<String> getUnknown() {
+        return unknown;
+    }
+}
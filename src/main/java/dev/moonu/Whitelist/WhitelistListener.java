@@ -0,0 +1,16 @@
+package dev.moonu.Whitelist;
+
+import java.util.UUID;
+
+/**
+ * Notified of every whitelist change the plugin makes
+ */
+public interface WhitelistListener {
+    /**
+     * Called on the server main thread right after a player's whitelist state changed
+     * @param uniqueId The player's UUID
+     * @param name The player's name, or null if unknown
+     * @param whitelisted The new whitelist state
+     */
+    void onWhitelistChanged(UUID uniqueId, String name, boolean whitelisted);
+}
@@ -1,103 +1,820 @@
 package dev.moonu.Whitelist;
 
+import dev.moonu.Whitelist.audit.AuditAction;
+import dev.moonu.Whitelist.audit.AuditEntry;
+import dev.moonu.Whitelist.audit.AuditLogWriter;
+import dev.moonu.Whitelist.audit.AuditPage;
+import dev.moonu.Whitelist.audit.AuditStore;
+import dev.moonu.Whitelist.cache.LoginWhitelist;
+import dev.moonu.Whitelist.cache.NameResolutionCache;
+import dev.moonu.Whitelist.cache.WhitelistIndex;
+import dev.moonu.Whitelist.cluster.ClusterChange;
+import dev.moonu.Whitelist.expiry.WhitelistExpiries;
+import dev.moonu.Whitelist.link.LinkRegistry;
+import dev.moonu.Whitelist.metrics.MetricsRegistry;
+import dev.moonu.Whitelist.metrics.PluginMetrics;
+import dev.moonu.Whitelist.storage.BukkitWhitelistStorage;
+import dev.moonu.Whitelist.storage.SqliteWhitelistStorage;
+import dev.moonu.Whitelist.storage.WhitelistStorage;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.HashMap;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Handles all whitelist operations and logging
  */
 public class WhitelistManager {
+    private static final int LOOKUP_THREADS = 4;
+    private static final long EXPIRY_CHECK_TICKS = 20L;
+    private static final String EXPIRY_MODERATOR = "DiscordWhitelist";
+    private static final long SNAPSHOT_TICK_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    
     private final Main plugin;
     private final MessageManager messageManager;
     private final File logFile;
+    private final AuditLogWriter auditLog;
+    private final ExecutorService lookupExecutor;
+    private final NameResolutionCache nameCache;
+    private final PluginMetrics metrics;
+    private final WhitelistIndex whitelistIndex = new WhitelistIndex();
+    private final LoginWhitelist loginWhitelist = new LoginWhitelist();
+    private final LinkRegistry linkRegistry;
+    private final WhitelistExpiries expiries;
+    private BukkitTask expiryTask;
+    private final boolean preLoginCheck;
+    private WhitelistStorage storage;
+    private final List<WhitelistListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile NameSnapshot sortedNames = new NameSnapshot(-1, List.of());
     
     public WhitelistManager(Main plugin, MessageManager messageManager) {
         this.plugin = plugin;
         this.messageManager = messageManager;
+        this.metrics = plugin.getMetrics();
         this.logFile = new File(plugin.getDataFolder(), "whitelist_log.txt");
+        this.lookupExecutor = createLookupExecutor();
+        this.nameCache = new NameResolutionCache(new File(plugin.getDataFolder(), "name_cache.dat"),
+                plugin.getConfig().getInt("settings.name_cache.max_entries", 10000),
+                TimeUnit.HOURS.toMillis(plugin.getConfig().getLong("settings.name_cache.ttl_hours", 24)),
+                TimeUnit.MINUTES.toMillis(plugin.getConfig().getLong("settings.name_cache.negative_ttl_minutes", 10)));
+        this.auditLog = createAuditLog();
+        this.preLoginCheck = "prelogin".equalsIgnoreCase(plugin.getConfig().getString("settings.storage.check", "bukkit"));
+        this.storage = createStorage();
+        this.linkRegistry = new LinkRegistry(new File(plugin.getDataFolder(), "links.dat"), this::reportLinkWriteFailure);
         setupLogFile();
+        loadNameCache();
+        this.expiries = new WhitelistExpiries(new File(plugin.getDataFolder(), "expiries.dat"), this::reportExpirySaveFailure);
+        loadLinks();
+        loadExpiries();
+        listeners.add(linkRegistry);
+        // An entry removed before it expires no longer needs its expiry
+        listeners.add((uniqueId, name, whitelisted) -> {
+            if (!whitelisted) {
+                expiries.cancel(uniqueId);
+            }
+        });
     }
     
     /**
-     * Setup the log file for whitelist actions
+     * Create the background audit log appender from the settings.audit_log section
+     */
+    private AuditLogWriter createAuditLog() {
+        String fsync = plugin.getConfig().getString("settings.audit_log.fsync", "batch");
+        AuditLogWriter.FsyncPolicy fsyncPolicy = "none".equalsIgnoreCase(fsync)
+                ? AuditLogWriter.FsyncPolicy.NONE
+                : AuditLogWriter.FsyncPolicy.BATCH;
+        return new AuditLogWriter(logFile, new AuditStore(new File(plugin.getDataFolder(), "audit")),
+                plugin.getConfig().getInt("settings.audit_log.queue_capacity", 10000),
+                plugin.getConfig().getInt("settings.audit_log.max_batch", 512),
+                fsyncPolicy,
+                plugin.getConfig().getLong("settings.audit_log.max_size_mb", 10) * 1024 * 1024,
+                plugin.getConfig().getBoolean("settings.audit_log.rotate_daily", true),
+                plugin.getConfig().getBoolean("settings.audit_log.compress_rotated", true),
+                this::reportLogWriteFailure);
+    }
+    
+    /**
+     * Create the whitelist storage from the settings.storage section
+     */
+    private WhitelistStorage createStorage() {
+        if (!"sqlite".equalsIgnoreCase(plugin.getConfig().getString("settings.storage.type", "bukkit"))) {
+            return new BukkitWhitelistStorage();
+        }
+        return new SqliteWhitelistStorage(new File(plugin.getDataFolder(), "whitelist.db"), !preLoginCheck,
+                plugin.getConfig().getInt("settings.storage.max_batch", 1000),
+                this::reportStorageWriteFailure);
+    }
+    
+    private void reportStorageWriteFailure(SQLException e) {
+        plugin.getLogger().severe(messageManager.getMessage("console.storage_write_failed", "error", e.getMessage()));
+    }
+    
+    private void reportLinkWriteFailure(IOException e) {
+        plugin.getLogger().severe(messageManager.getMessage("console.link_write_failed", "error", e.getMessage()));
+    }
+    
+    private void reportExpirySaveFailure(IOException e) {
+        plugin.getLogger().severe(messageManager.getMessage("console.expiry_save_failed", "error", e.getMessage()));
+    }
+    
+    private void reportLogWriteFailure(IOException e) {
+        plugin.getLogger().severe(messageManager.getMessage("console.log_write_failed", "error", e.getMessage()));
+    }
+    
+    /**
+     * Create the executor used for player name resolution.
+     * Lookups may block on a Mojang profile request, so they never run on the JDA event thread
+     * or the server main thread.
+     */
+    private static ExecutorService createLookupExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(LOOKUP_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "DiscordWhitelist-Lookup-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Setup the log file for whitelist actions and start the audit log writer
      */
     private void setupLogFile() {
-        if (!logFile.exists()) {
-            try {
-                boolean mkDir = logFile.getParentFile().mkdirs();
-                boolean mkFile = logFile.createNewFile();
+        boolean created = !logFile.exists();
+        try {
+            auditLog.start();
+            if (created) {
                 plugin.getLogger().info(messageManager.getMessage("console.log_setup_success"));
-            } catch (IOException e) {
-                Map<String, String> placeholders = new HashMap<>();
-                placeholders.put("error", e.getMessage());
-                plugin.getLogger().severe(messageManager.getMessage("console.log_file_creation_failed", placeholders));
             }
+        } catch (IOException e) {
+            plugin.getLogger().severe(messageManager.getMessage("console.log_file_creation_failed", "error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Load the persisted name cache snapshot
+     */
+    private void loadNameCache() {
+        try {
+            nameCache.load();
+        } catch (IOException e) {
+            plugin.getLogger().warning(messageManager.getMessage("console.name_cache_load_failed", "error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Replay the Discord account link log
+     */
+    private void loadLinks() {
+        try {
+            linkRegistry.load();
+        } catch (IOException e) {
+            plugin.getLogger().severe(messageManager.getMessage("console.link_load_failed", "error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Load the pending expiries of time-limited entries
+     */
+    private void loadExpiries() {
+        try {
+            expiries.load();
+        } catch (IOException e) {
+            plugin.getLogger().severe(messageManager.getMessage("console.expiry_load_failed", "error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Open the whitelist storage, seed the whitelist index from it and start expiring time-limited entries.
+     * Must run on the main thread. If the configured storage cannot be opened the server whitelist is used instead.
+     */
+    public void seedIndex() {
+        try {
+            storage.open();
+        } catch (IOException e) {
+            plugin.getLogger().severe(messageManager.getMessage("console.storage_open_failed", "error", e.getMessage()));
+            storage = new BukkitWhitelistStorage();
+        }
+        Map<UUID, String> entries = storage.getEntries();
+        whitelistIndex.seed(entries);
+        loginWhitelist.seed(entries.keySet());
+        
+        expiryTask = Bukkit.getScheduler().runTaskTimer(plugin, this::expireDue, EXPIRY_CHECK_TICKS, EXPIRY_CHECK_TICKS);
+    }
+    
+    /**
+     * Remove every entry whose time ran out, as one batch with one audit flush. Runs on the main thread
+     * once per second; when nothing is due this only advances the timing wheel by a tick.
+     */
+    private void expireDue() {
+        List<WhitelistExpiries.Expiry> due = expiries.poll(System.currentTimeMillis());
+        if (!due.isEmpty()) {
+            long start = System.nanoTime();
+            List<String> expired = new ArrayList<>(due.size());
+            for (WhitelistExpiries.Expiry expiry : due) {
+                OfflinePlayer player = Bukkit.getOfflinePlayer(expiry.getUniqueId());
+                if (!storage.isWhitelisted(player)) continue;
+                String name = nameOf(player, expiry.getName());
+                storage.setWhitelisted(player, name, false);
+                syncIndex(player, name);
+                notifyListeners(player, name, false);
+                expired.add(name != null ? name : expiry.getUniqueId().toString());
+            }
+            metrics.getMainThreadApply().recordSince(start);
+            
+            if (!expired.isEmpty()) {
+                plugin.getLogger().info(messageManager.getMessage("console.expired_log", "count", String.valueOf(expired.size())));
+                logWhitelistActions(AuditAction.EXPIRE, expired, EXPIRY_MODERATOR, 0);
+            }
+        }
+        expiries.saveIfDirty();
+    }
+    
+    /**
+     * Check whether joins are checked by the plugin on pre-login rather than by the server whitelist
+     * @return true if the plugin's pre-login check should be registered
+     */
+    public boolean usesPreLoginCheck() {
+        return preLoginCheck;
+    }
+    
+    /**
+     * Bring the index in line with a player's actual whitelist state. Must run on the main thread.
+     * Also repairs entries changed outside the plugin, e.g. by the vanilla /whitelist command.
+     * @param player The player
+     * @param username The name the player was requested by, used when the player's name is unknown
+     */
+    private void syncIndex(OfflinePlayer player, String username) {
+        if (storage.isWhitelisted(player)) {
+            String name = player.getName();
+            whitelistIndex.add(player.getUniqueId(), name != null ? name : username);
+            loginWhitelist.add(player.getUniqueId());
+        } else {
+            whitelistIndex.remove(player.getUniqueId());
+            loginWhitelist.remove(player.getUniqueId());
         }
     }
     
     /**
-     * Add a player to the server whitelist
+     * Register a listener for whitelist changes made by the plugin
+     * @param listener The listener, called on the server main thread
+     */
+    public void addListener(WhitelistListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Unregister a whitelist change listener
+     * @param listener The listener to remove
+     */
+    public void removeListener(WhitelistListener listener) {
+        listeners.remove(listener);
+    }
+    
+    private static String nameOf(OfflinePlayer player, String username) {
+        String name = player.getName();
+        return name != null ? name : username;
+    }
+    
+    private void notifyListeners(OfflinePlayer player, String username, boolean whitelisted) {
+        String name = player.getName();
+        for (WhitelistListener listener : listeners) {
+            listener.onWhitelistChanged(player.getUniqueId(), name != null ? name : username, whitelisted);
+        }
+    }
+    
+    /**
+     * Add a player to the server whitelist permanently, dropping any expiry the entry had.
+     * The name is resolved on the lookup executor and the whitelist is changed on the server main thread.
      * @param username The player's username
-     * @return true if the player was added, false if already whitelisted
+     * @return Future completing with CHANGED if the player was added, UNCHANGED if already whitelisted
+     * or UNKNOWN_PLAYER if the name does not belong to an account
      */
-    public boolean addToWhitelist(String username) {
-        OfflinePlayer player = Bukkit.getOfflinePlayer(username);
-        if (!player.isWhitelisted()) {
-            player.setWhitelisted(true);
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("player", username);
-            plugin.getLogger().info(messageManager.getMessage("console.player_added_log", placeholders));
-            return true;
+    public CompletableFuture<WhitelistResult> addToWhitelist(String username) {
+        return addToWhitelist(username, 0, 0);
+    }
+    
+    /**
+     * Add a player to the server whitelist, optionally linking the account to a Discord user and
+     * limiting how long the entry lasts. Both are applied even if the player was already whitelisted.
+     * @param username The player's username
+     * @param ownerId The Discord user owning the account, or 0 to leave links untouched
+     * @param expiresAt When the entry ends in epoch milliseconds, or 0 to make it permanent
+     * @return Future completing with CHANGED if the player was added, UNCHANGED if already whitelisted
+     * or UNKNOWN_PLAYER if the name does not belong to an account
+     */
+    public CompletableFuture<WhitelistResult> addToWhitelist(String username, long ownerId, long expiresAt) {
+        return resolvePlayer(username).thenCompose(player -> {
+            if (player == null) {
+                return CompletableFuture.completedFuture(WhitelistResult.UNKNOWN_PLAYER);
+            }
+            return callOnMainThread(player, p -> {
+                if (ownerId != 0) {
+                    linkRegistry.link(p.getUniqueId(), ownerId);
+                }
+                setExpiry(p, username, expiresAt);
+                if (storage.isWhitelisted(p)) {
+                    syncIndex(p, username);
+                    return WhitelistResult.UNCHANGED;
+                }
+                storage.setWhitelisted(p, nameOf(p, username), true);
+                syncIndex(p, username);
+                notifyListeners(p, username, true);
+                plugin.getLogger().info(messageManager.getMessage("console.player_added_log", "player", username));
+                return WhitelistResult.CHANGED;
+            });
+        });
+    }
+    
+    /**
+     * Schedule when a player's entry ends, or make it permanent
+     * @param expiresAt The end time in epoch milliseconds, or 0 for no expiry
+     */
+    private void setExpiry(OfflinePlayer player, String username, long expiresAt) {
+        if (expiresAt != 0) {
+            expiries.schedule(player.getUniqueId(), nameOf(player, username), expiresAt);
+        } else {
+            expiries.cancel(player.getUniqueId());
         }
-        return false;
     }
     
     /**
-     * Remove a player from the server whitelist
+     * Remove a player from the server whitelist.
+     * The name is resolved on the lookup executor and the whitelist is changed on the server main thread.
      * @param username The player's username
-     * @return true if the player was removed, false if not whitelisted
+     * @return Future completing with CHANGED if the player was removed, UNCHANGED if not whitelisted
+     * or UNKNOWN_PLAYER if the name does not belong to an account
      */
-    public boolean removeFromWhitelist(String username) {
+    public CompletableFuture<WhitelistResult> removeFromWhitelist(String username) {
+        return resolvePlayer(username).thenCompose(player -> {
+            if (player == null) {
+                return CompletableFuture.completedFuture(WhitelistResult.UNKNOWN_PLAYER);
+            }
+            return callOnMainThread(player, p -> {
+                if (!storage.isWhitelisted(p)) {
+                    syncIndex(p, username);
+                    return WhitelistResult.UNCHANGED;
+                }
+                storage.setWhitelisted(p, nameOf(p, username), false);
+                syncIndex(p, username);
+                notifyListeners(p, username, false);
+                plugin.getLogger().info(messageManager.getMessage("console.player_removed_log", "player", username));
+                return WhitelistResult.CHANGED;
+            });
+        });
+    }
+    
+    /**
+     * Add many players to the server whitelist permanently in one batch, dropping any expiries they had.
+     * Names are resolved concurrently and applied in a single main-thread pass.
+     * @param usernames The players' usernames; case-insensitive duplicates are ignored
+     * @return Future completing with the batch outcome
+     */
+    public CompletableFuture<WhitelistBatchResult> addAllToWhitelist(Collection<String> usernames) {
+        return applyBatch(usernames, true, 0);
+    }
+    
+    /**
+     * Add many players to the server whitelist in one batch, all ending at the same time.
+     * Players already whitelisted keep their entry with the new expiry.
+     * @param usernames The players' usernames; case-insensitive duplicates are ignored
+     * @param expiresAt When the entries end in epoch milliseconds, or 0 to make them permanent
+     * @return Future completing with the batch outcome
+     */
+    public CompletableFuture<WhitelistBatchResult> addAllToWhitelist(Collection<String> usernames, long expiresAt) {
+        return applyBatch(usernames, true, expiresAt);
+    }
+    
+    /**
+     * Remove many players from the server whitelist in one batch.
+     * Names are resolved concurrently and applied in a single main-thread pass.
+     * @param usernames The players' usernames; case-insensitive duplicates are ignored
+     * @return Future completing with the batch outcome
+     */
+    public CompletableFuture<WhitelistBatchResult> removeAllFromWhitelist(Collection<String> usernames) {
+        return applyBatch(usernames, false, 0);
+    }
+    
+    /**
+     * Resolve all usernames concurrently, then set their whitelist state in one main-thread task
+     * @param usernames The usernames to apply
+     * @param whitelisted The target whitelist state
+     * @param expiresAt When added entries end in epoch milliseconds, or 0 for no expiry
+     * @return Future completing with the batch outcome
+     */
+    private CompletableFuture<WhitelistBatchResult> applyBatch(Collection<String> usernames, boolean whitelisted, long expiresAt) {
+        Map<String, String> unique = new LinkedHashMap<>();
+        for (String username : usernames) {
+            unique.putIfAbsent(username.toLowerCase(), username);
+        }
+        
+        List<String> names = new ArrayList<>(unique.values());
+        List<CompletableFuture<OfflinePlayer>> lookups = new ArrayList<>(names.size());
+        for (String name : names) {
+            lookups.add(resolvePlayer(name));
+        }
+        
+        return CompletableFuture.allOf(lookups.toArray(new CompletableFuture<?>[0]))
+                .thenCompose(ignored -> callOnMainThread(lookups, futures -> {
+                    List<String> changed = new ArrayList<>();
+                    List<String> unchanged = new ArrayList<>();
+                    List<String> unknown = new ArrayList<>();
+                    for (int i = 0; i < names.size(); i++) {
+                        OfflinePlayer player = futures.get(i).join();
+                        if (player == null) {
+                            unknown.add(names.get(i));
+                            continue;
+                        }
+                        if (whitelisted) {
+                            setExpiry(player, names.get(i), expiresAt);
+                        }
+                        if (storage.isWhitelisted(player) == whitelisted) {
+                            syncIndex(player, names.get(i));
+                            unchanged.add(names.get(i));
+                        } else {
+                            storage.setWhitelisted(player, nameOf(player, names.get(i)), whitelisted);
+                            syncIndex(player, names.get(i));
+                            notifyListeners(player, names.get(i), whitelisted);
+                            changed.add(names.get(i));
+                        }
+                    }
+                    
+                    plugin.getLogger().info(messageManager.getMessage("console.bulk_applied_log",
+                            "action", whitelisted ? "ADD" : "REMOVE",
+                            "changed", String.valueOf(changed.size()),
+                            "unchanged", String.valueOf(unchanged.size())));
+                    return new WhitelistBatchResult(changed, unchanged, unknown);
+                }));
+    }
+    
+    /**
+     * Apply whitelist changes received from the cluster leader, in order, in one main-thread task
+     * @param changes The changes to apply
+     * @return Future completing once the changes are applied
+     */
+    public CompletableFuture<Void> applyReplicatedChanges(List<ClusterChange> changes) {
+        return callOnMainThread(changes, batch -> {
+            for (ClusterChange change : batch) {
+                OfflinePlayer player = Bukkit.getOfflinePlayer(change.getUniqueId());
+                if (storage.isWhitelisted(player) != change.isWhitelisted()) {
+                    storage.setWhitelisted(player, nameOf(player, change.getName()), change.isWhitelisted());
+                    notifyListeners(player, change.getName(), change.isWhitelisted());
+                }
+                syncIndex(player, change.getName());
+            }
+            return null;
+        });
+    }
+    
+    /**
+     * Make the server whitelist match a snapshot from the cluster leader.
+     * The difference is worked out in one main-thread task and then applied a few milliseconds per tick,
+     * since with the Bukkit storage every change rewrites whitelist.json.
+     * @param entries The leader's whitelist, UUID to name (name may be null)
+     * @return Future completing once the whitelist matches
+     */
+    public CompletableFuture<Void> applyReplicatedSnapshot(Map<UUID, String> entries) {
+        return callOnMainThread(entries, snapshot -> {
+            List<ClusterChange> changes = new ArrayList<>();
+            for (UUID uniqueId : storage.getEntries().keySet()) {
+                if (!snapshot.containsKey(uniqueId)) {
+                    changes.add(new ClusterChange(0, uniqueId, null, false));
+                }
+            }
+            for (Map.Entry<UUID, String> entry : snapshot.entrySet()) {
+                changes.add(new ClusterChange(0, entry.getKey(), entry.getValue(), true));
+            }
+            return changes;
+        }).thenCompose(changes -> {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            Bukkit.getScheduler().runTask(plugin, () -> applySnapshotSlice(changes, 0, done));
+            return done;
+        });
+    }
+    
+    /**
+     * Apply snapshot changes from the given index until this tick's budget is spent, then continue next tick
+     */
+    private void applySnapshotSlice(List<ClusterChange> changes, int from, CompletableFuture<Void> done) {
+        try {
+            long deadline = System.nanoTime() + SNAPSHOT_TICK_BUDGET_NANOS;
+            int index = from;
+            while (index < changes.size() && (index == from || System.nanoTime() < deadline)) {
+                ClusterChange change = changes.get(index++);
+                OfflinePlayer player = Bukkit.getOfflinePlayer(change.getUniqueId());
+                if (storage.isWhitelisted(player) != change.isWhitelisted()) {
+                    String name = change.isWhitelisted() ? nameOf(player, change.getName()) : player.getName();
+                    storage.setWhitelisted(player, name, change.isWhitelisted());
+                    notifyListeners(player, change.getName(), change.isWhitelisted());
+                }
+                syncIndex(player, change.getName());
+            }
+            
+            if (index < changes.size()) {
+                int next = index;
+                Bukkit.getScheduler().runTask(plugin, () -> applySnapshotSlice(changes, next, done));
+            } else {
+                done.complete(null);
+            }
+        } catch (Throwable t) {
+            done.completeExceptionally(t);
+        }
+    }
+    
+    /**
+     * Resolve a username to an offline player on the lookup executor.
+     * Resolutions are served from the name cache when possible; only misses reach Bukkit's profile lookup.
+     * @param username The player's username
+     * @return Future completing with the resolved player, or null if the name does not belong to an account
+     */
+    private CompletableFuture<OfflinePlayer> resolvePlayer(String username) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                return lookupPlayer(username);
+            } finally {
+                metrics.getNameResolution().recordSince(start);
+            }
+        }, lookupExecutor);
+    }
+    
+    private OfflinePlayer lookupPlayer(String username) {
+        NameResolutionCache.Entry cached = nameCache.get(username);
+        if (cached != null) {
+            return cached.isKnown() ? Bukkit.getOfflinePlayer(cached.getUniqueId()) : null;
+        }
+        
         OfflinePlayer player = Bukkit.getOfflinePlayer(username);
-        if (player.isWhitelisted()) {
-            player.setWhitelisted(false);
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("player", username);
-            plugin.getLogger().info(messageManager.getMessage("console.player_removed_log", placeholders));
-            return true;
+        if (isUnknownProfile(player.getUniqueId())) {
+            nameCache.putUnknown(username);
+            return null;
         }
-        return false;
+        nameCache.put(username, player.getUniqueId());
+        return player;
+    }
+    
+    /**
+     * In online mode a failed profile lookup falls back to a name-based (version 3) offline UUID,
+     * which no real account can log in with
+     * @param uniqueId The UUID returned by the lookup
+     * @return true if the lookup did not find an account
+     */
+    private boolean isUnknownProfile(UUID uniqueId) {
+        return Bukkit.getOnlineMode() && uniqueId.version() == 3;
+    }
+    
+    /**
+     * Run a whitelist mutation on the server main thread.
+     * The returned future is completed back on the lookup executor so that callers' continuations
+     * (replies, audit logging) never run on the main thread.
+     * @param input The input handed to the mutation
+     * @param action The mutation to apply
+     * @return Future completing with the mutation result
+     */
+    private <I, T> CompletableFuture<T> callOnMainThread(I input, Function<I, T> action) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long queued = System.nanoTime();
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            long start = System.nanoTime();
+            metrics.getMainThreadWait().record(start - queued);
+            try {
+                T result = action.apply(input);
+                metrics.getMainThreadApply().recordSince(start);
+                future.completeAsync(() -> result, lookupExecutor);
+            } catch (Throwable t) {
+                metrics.getMainThreadApply().recordSince(start);
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
     }
     
     /**
-     * Get all whitelisted players
-     * @return Set of whitelisted players
+     * Check whether a player is whitelisted, without touching Bukkit
+     * @param uniqueId The player's UUID
+     * @return true if whitelisted
      */
-    public Set<OfflinePlayer> getWhitelistedPlayers() {
-        return Bukkit.getWhitelistedPlayers();
+    public boolean isWhitelisted(UUID uniqueId) {
+        return whitelistIndex.contains(uniqueId);
     }
     
     /**
-     * Log a whitelist action to the log file
-     * @param action The action performed (ADD, REMOVE, etc.)
+     * Decide whether a joining player is whitelisted. Lock-free and safe on the async login thread.
+     * @param uniqueId The player's UUID
+     * @return true if whitelisted
+     */
+    public boolean checkLogin(UUID uniqueId) {
+        return loginWhitelist.contains(uniqueId);
+    }
+    
+    /**
+     * Visit the names of all whitelisted players without building a collection
+     * @param consumer Receives each name; must not call back into the whitelist
+     */
+    public void forEachWhitelistedName(Consumer<String> consumer) {
+        whitelistIndex.forEachName(consumer);
+    }
+    
+    /**
+     * Get all whitelisted names sorted case-insensitively.
+     * The sorted list is cached and only rebuilt after the whitelist changes.
+     * @return Immutable sorted list of names
+     */
+    public List<String> getSortedWhitelistedNames() {
+        NameSnapshot snapshot = sortedNames;
+        if (snapshot.version == whitelistIndex.getVersion()) {
+            return snapshot.names;
+        }
+        
+        List<String> names = new ArrayList<>(whitelistIndex.size());
+        long version = whitelistIndex.copyNames(names);
+        names.sort(String.CASE_INSENSITIVE_ORDER);
+        snapshot = new NameSnapshot(version, Collections.unmodifiableList(names));
+        sortedNames = snapshot;
+        return snapshot.names;
+    }
+    
+    /**
+     * Sorted names paired with the index version they were built from
+     */
+    private static final class NameSnapshot {
+        private final long version;
+        private final List<String> names;
+        
+        private NameSnapshot(long version, List<String> names) {
+            this.version = version;
+            this.names = names;
+        }
+    }
+    
+    /**
+     * Get the in-memory whitelist index
+     * @return The whitelist index
+     */
+    public WhitelistIndex getWhitelistIndex() {
+        return whitelistIndex;
+    }
+    
+    /**
+     * Queue a whitelist action for the audit log
+     * @param action The action performed
      * @param targetUsername The target username
      * @param authorDisplayName The author's display name
      * @param authorId The author's Discord ID
      */
-    public void logWhitelistAction(String action, String targetUsername, String authorDisplayName, String authorId) {
-        try (FileWriter writer = new FileWriter(logFile, true)) {
-            writer.write("[" + java.time.LocalDateTime.now() + "] " + action + " " + targetUsername + " by " + authorDisplayName + " (" + authorId + ")\n");
+    public void logWhitelistAction(AuditAction action, String targetUsername, String authorDisplayName, long authorId) {
+        if (!auditLog.append(new AuditEntry(System.currentTimeMillis(), action, targetUsername, authorDisplayName, authorId))) {
+            reportLogDropped(1);
+        }
+    }
+    
+    /**
+     * Queue a batch of whitelist actions for the audit log; they are written together in one group commit
+     * @param action The action performed
+     * @param targetUsernames The target usernames
+     * @param authorDisplayName The author's display name
+     * @param authorId The author's Discord ID
+     */
+    public void logWhitelistActions(AuditAction action, List<String> targetUsernames, String authorDisplayName, long authorId) {
+        if (targetUsernames.isEmpty()) {
+            return;
+        }
+        
+        long timestamp = System.currentTimeMillis();
+        List<AuditEntry> entries = new ArrayList<>(targetUsernames.size());
+        for (String targetUsername : targetUsernames) {
+            entries.add(new AuditEntry(timestamp, action, targetUsername, authorDisplayName, authorId));
+        }
+        int dropped = auditLog.appendAll(entries);
+        if (dropped > 0) {
+            reportLogDropped(dropped);
+        }
+    }
+    
+    /**
+     * Get audit history for a Minecraft username, newest first
+     * @param username The username, matched case-insensitively
+     * @param offset Number of entries to skip
+     * @param limit Maximum number of entries to return
+     * @return The requested page
+     * @throws IOException if the audit store cannot be read
+     */
+    public AuditPage getHistoryByPlayer(String username, int offset, int limit) throws IOException {
+        return auditLog.getStore().findByTarget(username, offset, limit);
+    }
+    
+    /**
+     * Get audit history for a moderator, newest first
+     * @param moderatorId The moderator's Discord ID
+     * @param offset Number of entries to skip
+     * @param limit Maximum number of entries to return
+     * @return The requested page
+     * @throws IOException if the audit store cannot be read
+     */
+    public AuditPage getHistoryByModerator(long moderatorId, int offset, int limit) throws IOException {
+        return auditLog.getStore().findByModerator(moderatorId, offset, limit);
+    }
+    
+    private void reportLogDropped(int count) {
+        plugin.getLogger().warning(messageManager.getMessage("console.log_queue_full", "count", String.valueOf(count)));
+    }
+    
+    /**
+     * Get the background audit log writer
+     * @return The audit log writer
+     */
+    public AuditLogWriter getAuditLog() {
+        return auditLog;
+    }
+    
+    /**
+     * Register gauges for the audit log queue, the whitelist index and the name cache
+     * @param registry The registry to add them to
+     */
+    public void registerMetrics(MetricsRegistry registry) {
+        registry.gauge("discordwhitelist_audit_queue_depth", "Audit entries waiting to be written", "", auditLog::getQueueDepth);
+        registry.counter("discordwhitelist_audit_dropped_total", "Audit entries dropped because the queue was full", "", auditLog::getDropped);
+        registry.gauge("discordwhitelist_storage_pending_writes", "Whitelist changes waiting to be written to storage", "", () -> storage.getPendingWrites());
+        registry.gauge("discordwhitelist_pending_expiries", "Time-limited whitelist entries waiting to expire", "", expiries::size);
+        registry.gauge("discordwhitelist_linked_accounts", "Minecraft accounts linked to a Discord user", "", linkRegistry::size);
+        registry.gauge("discordwhitelist_whitelisted_players", "Players on the whitelist", "", whitelistIndex::size);
+        registry.counter("discordwhitelist_login_rejected_total", "Joins refused by the pre-login check", "",
+                () -> loginWhitelist.getFilterRejections() + loginWhitelist.getSetRejections());
+        registry.counter("discordwhitelist_login_filter_rejected_total", "Joins refused by the Bloom filter without a set lookup", "",
+                loginWhitelist::getFilterRejections);
+        registry.gauge("discordwhitelist_name_cache_entries", "Entries in the name resolution cache", "", nameCache::size);
+        registry.counter("discordwhitelist_name_cache_hits_total", "Name resolutions served from the cache", "", nameCache::getHits);
+        registry.counter("discordwhitelist_name_cache_misses_total", "Name resolutions that needed a profile lookup", "", nameCache::getMisses);
+    }
+    
+    /**
+     * Get the username to UUID resolution cache
+     * @return The name cache
+     */
+    public NameResolutionCache getNameCache() {
+        return nameCache;
+    }
+    
+    /**
+     * Get the Discord account link registry
+     * @return The link registry
+     */
+    public LinkRegistry getLinkRegistry() {
+        return linkRegistry;
+    }
+    
+    /**
+     * Get the whitelist storage
+     * @return The storage in use
+     */
+    public WhitelistStorage getStorage() {
+        return storage;
+    }
+    
+    /**
+     * Stop expiring entries and the lookup executor, flush the whitelist storage, link log and expiries, drain the audit log and persist the name cache.
+     * Pending lookups are abandoned.
+     */
+    public void shutdown() {
+        if (expiryTask != null) {
+            expiryTask.cancel();
+        }
+        lookupExecutor.shutdown();
+        try {
+            if (!lookupExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                lookupExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            lookupExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        
+        storage.close();
+        linkRegistry.close();
+        expiries.close();
+        auditLog.close(TimeUnit.SECONDS.toMillis(10));
+        
+        try {
+            nameCache.save();
         } catch (IOException e) {
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("error", e.getMessage());
-            plugin.getLogger().severe(messageManager.getMessage("console.log_write_failed", placeholders));
+            plugin.getLogger().warning(messageManager.getMessage("console.name_cache_save_failed", "error", e.getMessage()));
         }
     }
 }
@@ -0,0 +1,13 @@
+package dev.moonu.Whitelist;
+
+/**
+ * Outcome of a single whitelist add or remove
+ */
+public enum WhitelistResult {
+    /** The whitelist was changed */
+    CHANGED,
+    /** The player was already in the requested state */
+    UNCHANGED,
+    /** The username does not belong to any Minecraft account */
+    UNKNOWN_PLAYER
+}
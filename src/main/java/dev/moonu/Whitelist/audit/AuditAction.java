@@ -0,0 +1,37 @@
+package dev.moonu.Whitelist.audit;
+
+/**
+ * Kinds of whitelist change recorded in the audit log
+ */
+public enum AuditAction {
+    ADD((byte) 1),
+    REMOVE((byte) 2),
+    EXPIRE((byte) 3);
+    
+    private final byte code;
+    
+    AuditAction(byte code) {
+        this.code = code;
+    }
+    
+    /**
+     * Get the stable on-disk code of this action
+     */
+    public byte getCode() {
+        return code;
+    }
+    
+    /**
+     * Look up an action by its on-disk code
+     * @param code The stored code
+     * @return The action, or null for an unknown code
+     */
+    public static AuditAction fromCode(byte code) {
+        for (AuditAction action : values()) {
+            if (action.code == code) {
+                return action;
+            }
+        }
+        return null;
+    }
+}
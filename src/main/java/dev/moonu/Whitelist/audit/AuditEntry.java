@@ -0,0 +1,52 @@
+package dev.moonu.Whitelist.audit;
+
+/**
+ * A single audited whitelist change
+ */
+public class AuditEntry {
+    private final long timestamp;
+    private final AuditAction action;
+    private final String target;
+    private final String moderatorName;
+    private final long moderatorId;
+    
+    public AuditEntry(long timestamp, AuditAction action, String target, String moderatorName, long moderatorId) {
+        this.timestamp = timestamp;
+        this.action = action;
+        this.target = target;
+        this.moderatorName = moderatorName;
+        this.moderatorId = moderatorId;
+    }
+    
+    /**
+     * Get the time of the change in epoch milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public AuditAction getAction() {
+        return action;
+    }
+    
+    /**
+     * Get the Minecraft username the change applied to
+     */
+    public String getTarget() {
+        return target;
+    }
+    
+    /**
+     * Get the Discord name of the moderator who made the change
+     */
+    public String getModeratorName() {
+        return moderatorName;
+    }
+    
+    /**
+     * Get the Discord ID of the moderator who made the change
+     */
+    public long getModeratorId() {
+        return moderatorId;
+    }
+}
@@ -0,0 +1,301 @@
+package dev.moonu.Whitelist.audit;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Background appender for the whitelist audit log.
+ * Callers enqueue entries into a bounded queue; a single writer thread drains everything pending
+ * into one text write (group commit) plus the matching {@link AuditStore} records, optionally fsyncs
+ * once per batch, and rotates the text file by size and date.
+ */
+public class AuditLogWriter {
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+    private static final long POLL_TIMEOUT_MILLIS = 250;
+    
+    /**
+     * When the writer forces written data to disk
+     */
+    public enum FsyncPolicy {
+        /** Leave flushing to the operating system */
+        NONE,
+        /** Force once after every group commit */
+        BATCH
+    }
+    
+    private final File logFile;
+    private final AuditStore store;
+    private final BlockingQueue<AuditEntry> queue;
+    private final int maxBatch;
+    private final FsyncPolicy fsyncPolicy;
+    private final long maxFileBytes;
+    private final boolean rotateDaily;
+    private final boolean compressRotated;
+    private final Consumer<IOException> errorHandler;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread thread;
+    private volatile boolean running;
+    private boolean started;
+    
+    private FileChannel channel;
+    private long fileSize;
+    private LocalDate fileDate;
+    
+    public AuditLogWriter(File logFile, AuditStore store, int queueCapacity, int maxBatch, FsyncPolicy fsyncPolicy,
+                          long maxFileBytes, boolean rotateDaily, boolean compressRotated,
+                          Consumer<IOException> errorHandler) {
+        this.logFile = logFile;
+        this.store = store;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+        this.fsyncPolicy = fsyncPolicy;
+        this.maxFileBytes = maxFileBytes;
+        this.rotateDaily = rotateDaily;
+        this.compressRotated = compressRotated;
+        this.errorHandler = errorHandler;
+        this.thread = new Thread(this::run, "DiscordWhitelist-AuditLog");
+        this.thread.setDaemon(true);
+    }
+    
+    /**
+     * Open the log file and audit store and start the writer thread.
+     * If either cannot be opened, whatever was opened is closed again and entries are dropped from then on.
+     * @throws IOException if either cannot be opened
+     */
+    public void start() throws IOException {
+        try {
+            open();
+            store.open();
+        } catch (IOException e) {
+            try {
+                closeFiles();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        running = true;
+        started = true;
+        thread.start();
+    }
+    
+    /**
+     * Queue an entry for writing. Blocks briefly if the queue is full, then drops the entry;
+     * drops it at once if the writer is not running.
+     * @param entry The entry
+     * @return true if the entry was queued
+     */
+    public boolean append(AuditEntry entry) {
+        try {
+            if (running && queue.offer(entry, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dropped.increment();
+        return false;
+    }
+    
+    /**
+     * Queue several entries for writing, in order, without waiting for room in the queue
+     * @param entries The entries
+     * @return The number of entries dropped because the queue was full or the writer is not running
+     */
+    public int appendAll(List<AuditEntry> entries) {
+        int failed = 0;
+        for (AuditEntry entry : entries) {
+            if (!running || !queue.offer(entry)) {
+                failed++;
+            }
+        }
+        dropped.add(failed);
+        return failed;
+    }
+    
+    private void run() {
+        List<AuditEntry> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditEntry first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                errorHandler.accept(e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void writeBatch(List<AuditEntry> batch) throws IOException {
+        rotateIfNeeded();
+        
+        StringBuilder builder = new StringBuilder(batch.size() * 96);
+        for (AuditEntry entry : batch) {
+            builder.append('[').append(LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.getTimestamp()), ZoneId.systemDefault()))
+                    .append("] ").append(entry.getAction()).append(' ').append(entry.getTarget())
+                    .append(" by ").append(entry.getModeratorName()).append(" (").append(entry.getModeratorId()).append(")\n");
+        }
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(builder.toString());
+        while (buffer.hasRemaining()) {
+            fileSize += channel.write(buffer);
+        }
+        for (AuditEntry entry : batch) {
+            store.append(entry);
+        }
+        
+        if (fsyncPolicy == FsyncPolicy.BATCH) {
+            channel.force(false);
+            store.force();
+        }
+    }
+    
+    private void open() throws IOException {
+        File parent = logFile.getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        channel = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileSize = channel.size();
+        fileDate = fileSize == 0
+                ? LocalDate.now()
+                : LocalDate.ofInstant(Instant.ofEpochMilli(logFile.lastModified()), ZoneId.systemDefault());
+    }
+    
+    private void rotateIfNeeded() throws IOException {
+        LocalDate today = LocalDate.now();
+        boolean sizeExceeded = maxFileBytes > 0 && fileSize >= maxFileBytes;
+        boolean dateChanged = rotateDaily && fileSize > 0 && !today.equals(fileDate);
+        if (!sizeExceeded && !dateChanged) {
+            return;
+        }
+        
+        channel.close();
+        File rotated = nextSegmentFile(fileDate);
+        try {
+            Files.move(logFile.toPath(), rotated.toPath());
+        } catch (IOException e) {
+            // Keep appending to the current file rather than losing the log; rotation is retried next batch
+            open();
+            errorHandler.accept(e);
+            return;
+        }
+        open();
+        fileDate = today;
+        
+        if (compressRotated) {
+            compress(rotated);
+        }
+    }
+    
+    /**
+     * Find the first unused segment name, e.g. whitelist_log-2025-06-23.1.txt
+     */
+    private File nextSegmentFile(LocalDate date) {
+        String name = logFile.getName();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        
+        for (int index = 1; ; index++) {
+            File candidate = new File(logFile.getParentFile(), base + "-" + date + "." + index + extension);
+            if (!candidate.exists() && !new File(candidate.getPath() + ".gz").exists()) {
+                return candidate;
+            }
+        }
+    }
+    
+    private void compress(File segment) throws IOException {
+        File compressed = new File(segment.getPath() + ".gz");
+        try (InputStream in = new FileInputStream(segment);
+             OutputStream out = new GZIPOutputStream(new FileOutputStream(compressed))) {
+            in.transferTo(out);
+        }
+        Files.delete(segment.toPath());
+    }
+    
+    /**
+     * Stop accepting lines, write everything still queued and close the file
+     * @param timeoutMillis How long to wait for the queue to drain
+     */
+    public void close(long timeoutMillis) {
+        // No interrupt here: interrupting a thread inside FileChannel I/O closes the channel.
+        // The writer notices the flag within one poll timeout and drains what is left.
+        running = false;
+        if (started) {
+            try {
+                thread.join(timeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        try {
+            closeFiles();
+        } catch (IOException e) {
+            errorHandler.accept(e);
+        }
+    }
+    
+    private void closeFiles() throws IOException {
+        try {
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            store.close();
+        }
+    }
+    
+    /**
+     * Get the queryable audit store fed by this writer
+     */
+    public AuditStore getStore() {
+        return store;
+    }
+    
+    /**
+     * Get the number of entries currently waiting to be written
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+    
+    /**
+     * Get the number of entries dropped because the queue was full
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+}
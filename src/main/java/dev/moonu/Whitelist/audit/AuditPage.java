@@ -0,0 +1,28 @@
+package dev.moonu.Whitelist.audit;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of audit history, newest entry first
+ */
+public class AuditPage {
+    private final List<AuditEntry> entries;
+    private final int total;
+    
+    public AuditPage(List<AuditEntry> entries, int total) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.total = total;
+    }
+    
+    public List<AuditEntry> getEntries() {
+        return entries;
+    }
+    
+    /**
+     * Get the total number of entries matching the query across all pages
+     */
+    public int getTotal() {
+        return total;
+    }
+}
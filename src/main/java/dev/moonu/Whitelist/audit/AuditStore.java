@@ -0,0 +1,417 @@
+package dev.moonu.Whitelist.audit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Queryable audit history.
+ * Entries are appended to {@code records.dat} as fixed-size records. Every record links to the previous
+ * record with the same target and the same moderator, and two memory-mapped hash indexes
+ * ({@code by_target.idx}, {@code by_moderator.idx}) point at the newest record per key.
+ * A lookup walks one chain newest-first, so its cost depends on the page requested, not on the log size.
+ * Lookups share a read lock and run concurrently; appends take the write lock.
+ */
+public class AuditStore {
+    private static final int RECORD_SIZE = 96;
+    private static final int TARGET_BYTES = 24;
+    private static final int MODERATOR_NAME_BYTES = 32;
+    
+    // Record layout
+    private static final int OFF_TIMESTAMP = 0;
+    private static final int OFF_ACTION = 8;
+    private static final int OFF_MODERATOR_ID = 9;
+    private static final int OFF_PREV_BY_TARGET = 17;
+    private static final int OFF_PREV_BY_MODERATOR = 21;
+    private static final int OFF_TARGET_LENGTH = 25;
+    private static final int OFF_TARGET = 26;
+    private static final int OFF_MODERATOR_NAME_LENGTH = OFF_TARGET + TARGET_BYTES;
+    private static final int OFF_MODERATOR_NAME = OFF_MODERATOR_NAME_LENGTH + 1;
+    
+    private final File directory;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private FileChannel records;
+    private MappedIndex byTarget;
+    private MappedIndex byModerator;
+    private int recordCount;
+    
+    public AuditStore(File directory) {
+        this.directory = directory;
+    }
+    
+    /**
+     * Open the record file and indexes, rebuilding the indexes if they do not cover every record
+     * @throws IOException if the files cannot be opened
+     */
+    public void open() throws IOException {
+        lock.writeLock().lock();
+        try {
+            directory.mkdirs();
+            records = FileChannel.open(new File(directory, "records.dat").toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            
+            long size = records.size();
+            if (size % RECORD_SIZE != 0) {
+                // Drop a record torn by a crash mid-write
+                size -= size % RECORD_SIZE;
+                records.truncate(size);
+            }
+            recordCount = (int) (size / RECORD_SIZE);
+            
+            byTarget = new MappedIndex(new File(directory, "by_target.idx"));
+            byModerator = new MappedIndex(new File(directory, "by_moderator.idx"));
+            if (byTarget.getCoveredRecords() != recordCount || byModerator.getCoveredRecords() != recordCount) {
+                rebuildIndexes();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void rebuildIndexes() throws IOException {
+        byTarget.clear();
+        byModerator.clear();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        for (int i = 0; i < recordCount; i++) {
+            readRecord(i, record);
+            byTarget.put(targetKey(readString(record, OFF_TARGET_LENGTH, OFF_TARGET)), i + 1);
+            byModerator.put(moderatorKey(record.getLong(OFF_MODERATOR_ID)), i + 1);
+        }
+        byTarget.setCoveredRecords(recordCount);
+        byModerator.setCoveredRecords(recordCount);
+    }
+    
+    /**
+     * Append an entry and link it into both indexes
+     * @throws IOException if the record cannot be written
+     */
+    public void append(AuditEntry entry) throws IOException {
+        lock.writeLock().lock();
+        try {
+            long targetKey = targetKey(entry.getTarget());
+            long moderatorKey = moderatorKey(entry.getModeratorId());
+            
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            record.putLong(OFF_TIMESTAMP, entry.getTimestamp());
+            record.put(OFF_ACTION, entry.getAction().getCode());
+            record.putLong(OFF_MODERATOR_ID, entry.getModeratorId());
+            record.putInt(OFF_PREV_BY_TARGET, byTarget.head(targetKey));
+            record.putInt(OFF_PREV_BY_MODERATOR, byModerator.head(moderatorKey));
+            writeString(record, OFF_TARGET_LENGTH, OFF_TARGET, TARGET_BYTES, entry.getTarget());
+            writeString(record, OFF_MODERATOR_NAME_LENGTH, OFF_MODERATOR_NAME, MODERATOR_NAME_BYTES, entry.getModeratorName());
+            
+            long position = (long) recordCount * RECORD_SIZE;
+            while (record.hasRemaining()) {
+                position += records.write(record, position);
+            }
+            
+            recordCount++;
+            byTarget.put(targetKey, recordCount);
+            byModerator.put(moderatorKey, recordCount);
+            byTarget.setCoveredRecords(recordCount);
+            byModerator.setCoveredRecords(recordCount);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Find history for a Minecraft username, newest first
+     * @param target The username, matched case-insensitively
+     * @param offset Number of matching entries to skip
+     * @param limit Maximum number of entries to return
+     */
+    public AuditPage findByTarget(String target, int offset, int limit) throws IOException {
+        lock.readLock().lock();
+        try {
+            long key = targetKey(target);
+            return walk(byTarget.head(key), byTarget.count(key), OFF_PREV_BY_TARGET, offset, limit,
+                    record -> readString(record, OFF_TARGET_LENGTH, OFF_TARGET).equalsIgnoreCase(target));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Find history for a moderator, newest first
+     * @param moderatorId The moderator's Discord ID
+     * @param offset Number of matching entries to skip
+     * @param limit Maximum number of entries to return
+     */
+    public AuditPage findByModerator(long moderatorId, int offset, int limit) throws IOException {
+        lock.readLock().lock();
+        try {
+            long key = moderatorKey(moderatorId);
+            return walk(byModerator.head(key), byModerator.count(key), OFF_PREV_BY_MODERATOR, offset, limit,
+                    record -> record.getLong(OFF_MODERATOR_ID) == moderatorId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private interface RecordFilter {
+        boolean matches(ByteBuffer record);
+    }
+    
+    private AuditPage walk(int head, int total, int prevOffset, int offset, int limit, RecordFilter filter) throws IOException {
+        List<AuditEntry> entries = new ArrayList<>(limit);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        int skipped = 0;
+        for (int pointer = head; pointer != 0 && entries.size() < limit; pointer = record.getInt(prevOffset)) {
+            readRecord(pointer - 1, record);
+            if (!filter.matches(record)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            entries.add(new AuditEntry(
+                    record.getLong(OFF_TIMESTAMP),
+                    AuditAction.fromCode(record.get(OFF_ACTION)),
+                    readString(record, OFF_TARGET_LENGTH, OFF_TARGET),
+                    readString(record, OFF_MODERATOR_NAME_LENGTH, OFF_MODERATOR_NAME),
+                    record.getLong(OFF_MODERATOR_ID)));
+        }
+        return new AuditPage(entries, total);
+    }
+    
+    private void readRecord(int index, ByteBuffer record) throws IOException {
+        record.clear();
+        long position = (long) index * RECORD_SIZE;
+        while (record.hasRemaining()) {
+            int read = records.read(record, position);
+            if (read < 0) {
+                throw new IOException("Audit record " + index + " is truncated");
+            }
+            position += read;
+        }
+    }
+    
+    private static void writeString(ByteBuffer record, int lengthOffset, int offset, int maxBytes, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, maxBytes);
+        // Never cut a multi-byte character in half
+        while (length > 0 && length < bytes.length && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        record.put(lengthOffset, (byte) length);
+        record.put(offset, bytes, 0, length);
+    }
+    
+    private static String readString(ByteBuffer record, int lengthOffset, int offset) {
+        int length = record.get(lengthOffset) & 0xFF;
+        byte[] bytes = new byte[length];
+        record.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * 64-bit FNV-1a of the lowercase username; 0 is reserved for empty index slots
+     */
+    private static long targetKey(String target) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < target.length(); i++) {
+            hash ^= Character.toLowerCase(target.charAt(i));
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+    
+    private static long moderatorKey(long moderatorId) {
+        return moderatorId == 0 ? 1 : moderatorId;
+    }
+    
+    /**
+     * Get the number of stored entries
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return recordCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Force records and indexes to disk
+     */
+    public void force() throws IOException {
+        lock.writeLock().lock();
+        try {
+            records.force(false);
+            byTarget.force();
+            byModerator.force();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Force and close whatever {@link #open} got to open
+     */
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (records != null) {
+                records.force(false);
+                records.close();
+            }
+            if (byTarget != null) {
+                byTarget.force();
+                byTarget.close();
+            }
+            if (byModerator != null) {
+                byModerator.force();
+                byModerator.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Memory-mapped open-addressing table from a 64-bit key to the newest record number and entry count.
+     * Header: magic, capacity, size, covered record count. Each slot: key (long), head (int), count (int).
+     */
+    private static final class MappedIndex {
+        private static final int MAGIC = 0x44574958; // "DWIX"
+        private static final int HEADER_SIZE = 16;
+        private static final int SLOT_SIZE = 16;
+        private static final int INITIAL_CAPACITY = 4096;
+        
+        private final FileChannel channel;
+        private MappedByteBuffer buffer;
+        private int capacity;
+        private int size;
+        
+        MappedIndex(File file) throws IOException {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() >= HEADER_SIZE) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                capacity = buffer.getInt(4);
+                size = buffer.getInt(8);
+                if (buffer.getInt(0) == MAGIC && Integer.bitCount(capacity) == 1
+                        && channel.size() == HEADER_SIZE + (long) capacity * SLOT_SIZE) {
+                    return;
+                }
+            }
+            map(INITIAL_CAPACITY);
+            clear();
+        }
+        
+        private void map(int newCapacity) throws IOException {
+            capacity = newCapacity;
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+        }
+        
+        void clear() {
+            for (int i = HEADER_SIZE; i < buffer.capacity(); i += 8) {
+                buffer.putLong(i, 0);
+            }
+            size = 0;
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, capacity);
+            buffer.putInt(8, size);
+            // Marked as covering nothing until the caller says otherwise
+            buffer.putInt(12, -1);
+        }
+        
+        int getCoveredRecords() {
+            return buffer.getInt(12);
+        }
+        
+        void setCoveredRecords(int covered) {
+            buffer.putInt(12, covered);
+        }
+        
+        private int slotOffset(int slot) {
+            return HEADER_SIZE + slot * SLOT_SIZE;
+        }
+        
+        private int find(long key) {
+            long mixed = key * 0x9E3779B97F4A7C15L;
+            int slot = (int) (mixed ^ (mixed >>> 32)) & (capacity - 1);
+            while (true) {
+                long stored = buffer.getLong(slotOffset(slot));
+                if (stored == key || stored == 0) {
+                    return slot;
+                }
+                slot = (slot + 1) & (capacity - 1);
+            }
+        }
+        
+        int head(long key) {
+            int offset = slotOffset(find(key));
+            return buffer.getLong(offset) == key ? buffer.getInt(offset + 8) : 0;
+        }
+        
+        int count(long key) {
+            int offset = slotOffset(find(key));
+            return buffer.getLong(offset) == key ? buffer.getInt(offset + 12) : 0;
+        }
+        
+        void put(long key, int head) throws IOException {
+            int offset = slotOffset(find(key));
+            if (buffer.getLong(offset) != key) {
+                if ((size + 1) * 2 > capacity) {
+                    grow();
+                    offset = slotOffset(find(key));
+                }
+                buffer.putLong(offset, key);
+                buffer.putInt(offset + 12, 0);
+                size++;
+                buffer.putInt(8, size);
+            }
+            buffer.putInt(offset + 8, head);
+            buffer.putInt(offset + 12, buffer.getInt(offset + 12) + 1);
+        }
+        
+        private void grow() throws IOException {
+            long[] keys = new long[size];
+            int[] heads = new int[size];
+            int[] counts = new int[size];
+            int n = 0;
+            for (int slot = 0; slot < capacity; slot++) {
+                int offset = slotOffset(slot);
+                long key = buffer.getLong(offset);
+                if (key != 0) {
+                    keys[n] = key;
+                    heads[n] = buffer.getInt(offset + 8);
+                    counts[n] = buffer.getInt(offset + 12);
+                    n++;
+                }
+            }
+            
+            int covered = getCoveredRecords();
+            map(capacity * 2);
+            clear();
+            for (int i = 0; i < n; i++) {
+                int offset = slotOffset(find(keys[i]));
+                buffer.putLong(offset, keys[i]);
+                buffer.putInt(offset + 8, heads[i]);
+                buffer.putInt(offset + 12, counts[i]);
+            }
+            size = n;
+            buffer.putInt(8, size);
+            setCoveredRecords(covered);
+        }
+        
+        void force() {
+            buffer.force();
+        }
+        
+        void close() throws IOException {
+            buffer.force();
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package dev.moonu.Whitelist.cache;
+
+import dev.moonu.Whitelist.util.UuidBloomFilter;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Whitelisted UUIDs for the pre-login check, readable from login threads without taking any lock.
+ * A Bloom filter answers most unknown players without touching the set. Changes come only from the server
+ * main thread; since a Bloom filter cannot forget, it is rebuilt there once removals or growth make it stale.
+ */
+public class LoginWhitelist {
+    private static final int MIN_CAPACITY = 1024;
+    
+    private final Set<UUID> members = ConcurrentHashMap.newKeySet();
+    private final LongAdder filterRejections = new LongAdder();
+    private final LongAdder setRejections = new LongAdder();
+    private volatile UuidBloomFilter filter = new UuidBloomFilter(MIN_CAPACITY);
+    private int removedSinceBuild;
+    
+    /**
+     * Replace the whole content. Main thread only.
+     */
+    public void seed(Collection<UUID> uniqueIds) {
+        members.clear();
+        members.addAll(uniqueIds);
+        rebuildFilter();
+    }
+    
+    /**
+     * Add a UUID. Main thread only.
+     */
+    public void add(UUID uniqueId) {
+        if (!members.add(uniqueId)) return;
+        UuidBloomFilter current = filter;
+        if (members.size() > current.getCapacity()) {
+            rebuildFilter();
+        } else {
+            current.add(uniqueId);
+        }
+    }
+    
+    /**
+     * Remove a UUID. Main thread only.
+     */
+    public void remove(UUID uniqueId) {
+        if (!members.remove(uniqueId)) return;
+        // Removed players still pass the filter and fall through to the set; rebuild once they pile up
+        if (++removedSinceBuild > Math.max(MIN_CAPACITY, members.size())) {
+            rebuildFilter();
+        }
+    }
+    
+    /**
+     * Build a new filter from the set and publish it. Every filter is fully built before it is visible,
+     * and no add can race the build since both run on the main thread.
+     */
+    private void rebuildFilter() {
+        UuidBloomFilter rebuilt = new UuidBloomFilter(Math.max(MIN_CAPACITY, members.size() * 2));
+        for (UUID uniqueId : members) {
+            rebuilt.add(uniqueId);
+        }
+        filter = rebuilt;
+        removedSinceBuild = 0;
+    }
+    
+    /**
+     * Check whether a UUID is whitelisted. Safe on any thread.
+     */
+    public boolean contains(UUID uniqueId) {
+        if (!filter.mightContain(uniqueId)) {
+            filterRejections.increment();
+            return false;
+        }
+        if (!members.contains(uniqueId)) {
+            setRejections.increment();
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Get the number of checks the Bloom filter rejected on its own
+     */
+    public long getFilterRejections() {
+        return filterRejections.sum();
+    }
+    
+    /**
+     * Get the number of checks that passed the filter but were not whitelisted
+     */
+    public long getSetRejections() {
+        return setRejections.sum();
+    }
+    
+    public int size() {
+        return members.size();
+    }
+}
@@ -0,0 +1,242 @@
+package dev.moonu.Whitelist.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded username to UUID cache placed in front of Bukkit's profile lookup.
+ * Entries expire after a fixed TTL, unknown names are cached for a shorter negative TTL,
+ * and the least recently used entries are evicted once the cache is full.
+ * Lookups take no lock: each entry records when it was last read, and whichever thread pushes the cache
+ * a sixteenth past its limit sweeps out expired entries and then the least recently read ones.
+ */
+public class NameResolutionCache {
+    private static final int SNAPSHOT_MAGIC = 0x444E4331; // "DNC1"
+    
+    private final File snapshotFile;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final int evictionSlack;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    public NameResolutionCache(File snapshotFile, int maxEntries, long ttlMillis, long negativeTtlMillis) {
+        this.snapshotFile = snapshotFile;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.evictionSlack = Math.max(1, maxEntries / 16);
+    }
+    
+    /**
+     * A cached resolution. A null UUID means the name is known not to exist.
+     */
+    public static final class Entry {
+        private final UUID uniqueId;
+        private final long expiresAt;
+        private volatile long lastAccess;
+        
+        private Entry(UUID uniqueId, long expiresAt, long lastAccess) {
+            this.uniqueId = uniqueId;
+            this.expiresAt = expiresAt;
+            this.lastAccess = lastAccess;
+        }
+        
+        public UUID getUniqueId() {
+            return uniqueId;
+        }
+        
+        public boolean isKnown() {
+            return uniqueId != null;
+        }
+    }
+    
+    /**
+     * Look up a username
+     * @param username The username, matched case-insensitively
+     * @return The live entry, or null on a miss
+     */
+    public Entry get(String username) {
+        String key = username.toLowerCase();
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt > now) {
+            // Skip the write when it would not change anything, so hot names do not bounce their cache line
+            if (entry.lastAccess != now) {
+                entry.lastAccess = now;
+            }
+            hits.increment();
+            return entry;
+        }
+        if (entry != null) {
+            entries.remove(key, entry);
+        }
+        misses.increment();
+        return null;
+    }
+    
+    /**
+     * Cache a successful resolution
+     */
+    public void put(String username, UUID uniqueId) {
+        long now = System.currentTimeMillis();
+        store(username.toLowerCase(), new Entry(uniqueId, now + ttlMillis, now));
+    }
+    
+    /**
+     * Cache the fact that a username does not belong to any account
+     */
+    public void putUnknown(String username) {
+        long now = System.currentTimeMillis();
+        store(username.toLowerCase(), new Entry(null, now + negativeTtlMillis, now));
+    }
+    
+    private void store(String key, Entry entry) {
+        entries.put(key, entry);
+        if (entries.size() > maxEntries + evictionSlack) {
+            evict();
+        }
+    }
+    
+    /**
+     * Bring the cache back to its limit, dropping expired entries first and then the least recently read.
+     * Only one thread sweeps at a time; others keep going and leave it to that thread.
+     */
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            entries.values().removeIf(entry -> entry.expiresAt <= now);
+            int excess = entries.size() - maxEntries;
+            if (excess <= 0) {
+                return;
+            }
+            
+            long[] accessTimes = new long[entries.size()];
+            int count = 0;
+            for (Entry entry : entries.values()) {
+                if (count == accessTimes.length) break;
+                accessTimes[count++] = entry.lastAccess;
+            }
+            if (count == 0) {
+                return;
+            }
+            Arrays.sort(accessTimes, 0, count);
+            long cutoff = accessTimes[Math.min(excess, count) - 1];
+            // Many entries share a millisecond, so only take as many at the cutoff as are still needed
+            for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+                if (it.next().lastAccess < cutoff) {
+                    it.remove();
+                    excess--;
+                }
+            }
+            for (Iterator<Entry> it = entries.values().iterator(); excess > 0 && it.hasNext(); ) {
+                if (it.next().lastAccess == cutoff) {
+                    it.remove();
+                    excess--;
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+    
+    /**
+     * Load the snapshot written by {@link #save()}. Expired entries are dropped.
+     * @throws IOException if the snapshot exists but cannot be read
+     */
+    public void load() throws IOException {
+        if (!snapshotFile.exists()) {
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Unrecognised name cache snapshot: " + snapshotFile.getName());
+            }
+            
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                long expiresAt = in.readLong();
+                UUID uniqueId = in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+                if (expiresAt > now) {
+                    // The snapshot is least recently used first; spread the entries out just before now to keep that order
+                    entries.put(key, new Entry(uniqueId, expiresAt, now - count + i));
+                }
+            }
+        }
+        if (entries.size() > maxEntries) {
+            evict();
+        }
+    }
+    
+    /**
+     * Write all live entries to the snapshot file, least recently used first,
+     * so that reloading preserves the eviction order.
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void save() throws IOException {
+        List<Map.Entry<String, Entry>> live = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (entry.getValue().expiresAt > now) {
+                live.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+        live.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+        
+        File tempFile = new File(snapshotFile.getParentFile(), snapshotFile.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(live.size());
+            for (Map.Entry<String, Entry> entry : live) {
+                Entry value = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeLong(value.expiresAt);
+                out.writeBoolean(value.isKnown());
+                if (value.isKnown()) {
+                    out.writeLong(value.uniqueId.getMostSignificantBits());
+                    out.writeLong(value.uniqueId.getLeastSignificantBits());
+                }
+            }
+        }
+        Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    public long getMisses() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,305 @@
+package dev.moonu.Whitelist.cache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory mirror of the server whitelist.
+ * UUIDs are kept in an open-addressing table as two longs per slot, with the display name in a parallel array,
+ * plus a lowercase name map. Writes come from the server main thread, reads from any thread.
+ */
+public class WhitelistIndex {
+    private static final int INITIAL_CAPACITY = 64;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, UUID> byName = new HashMap<>();
+    private long[] keys;
+    private String[] names;
+    private boolean[] used;
+    private int size;
+    private long version;
+    
+    public WhitelistIndex() {
+        allocate(INITIAL_CAPACITY);
+    }
+    
+    private void allocate(int capacity) {
+        keys = new long[capacity * 2];
+        names = new String[capacity];
+        used = new boolean[capacity];
+    }
+    
+    private static int hash(long most, long least) {
+        long h = (most ^ least) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+    
+    /**
+     * Find the slot holding the UUID, or the empty slot where it would go
+     */
+    private int findSlot(long most, long least) {
+        int mask = used.length - 1;
+        int slot = hash(most, least) & mask;
+        while (used[slot] && (keys[slot * 2] != most || keys[slot * 2 + 1] != least)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+    
+    /**
+     * Replace the whole index content
+     * @param entries UUID to display name (name may be null)
+     */
+    public void seed(Map<UUID, String> entries) {
+        lock.writeLock().lock();
+        try {
+            int capacity = INITIAL_CAPACITY;
+            while (capacity < entries.size() * 2) {
+                capacity <<= 1;
+            }
+            allocate(capacity);
+            byName.clear();
+            size = 0;
+            for (Map.Entry<UUID, String> entry : entries.entrySet()) {
+                insert(entry.getKey(), entry.getValue());
+            }
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Add or rename a whitelisted player. The version only moves if the entry actually changed.
+     * @param uniqueId The player's UUID
+     * @param name The player's name, may be null if unknown
+     */
+    public void add(UUID uniqueId, String name) {
+        lock.writeLock().lock();
+        try {
+            if ((size + 1) * 2 > used.length) {
+                rehash(used.length * 2);
+            }
+            if (insert(uniqueId, name)) {
+                version++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * @return false if the UUID was already indexed under exactly that name
+     */
+    private boolean insert(UUID uniqueId, String name) {
+        long most = uniqueId.getMostSignificantBits();
+        long least = uniqueId.getLeastSignificantBits();
+        int slot = findSlot(most, least);
+        if (used[slot]) {
+            if (Objects.equals(names[slot], name)) {
+                return false;
+            }
+            if (names[slot] != null) {
+                // Another player may have taken the name since; leave their mapping alone
+                byName.remove(names[slot].toLowerCase(), uniqueId);
+            }
+        } else {
+            used[slot] = true;
+            keys[slot * 2] = most;
+            keys[slot * 2 + 1] = least;
+            size++;
+        }
+        names[slot] = name;
+        if (name != null) {
+            byName.put(name.toLowerCase(), uniqueId);
+        }
+        return true;
+    }
+    
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        String[] oldNames = names;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int slot = findSlot(oldKeys[i * 2], oldKeys[i * 2 + 1]);
+                used[slot] = true;
+                keys[slot * 2] = oldKeys[i * 2];
+                keys[slot * 2 + 1] = oldKeys[i * 2 + 1];
+                names[slot] = oldNames[i];
+            }
+        }
+    }
+    
+    /**
+     * Remove a player
+     * @param uniqueId The player's UUID
+     * @return true if the player was indexed
+     */
+    public boolean remove(UUID uniqueId) {
+        lock.writeLock().lock();
+        try {
+            int slot = findSlot(uniqueId.getMostSignificantBits(), uniqueId.getLeastSignificantBits());
+            if (!used[slot]) {
+                return false;
+            }
+            if (names[slot] != null) {
+                byName.remove(names[slot].toLowerCase(), uniqueId);
+            }
+            deleteSlot(slot);
+            size--;
+            version++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Linear-probing deletion: shift later entries of the probe run back into the hole
+     */
+    private void deleteSlot(int hole) {
+        int mask = used.length - 1;
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (!used[slot]) {
+                break;
+            }
+            int home = hash(keys[slot * 2], keys[slot * 2 + 1]) & mask;
+            boolean movable = hole <= slot ? (home <= hole || home > slot) : (home <= hole && home > slot);
+            if (movable) {
+                keys[hole * 2] = keys[slot * 2];
+                keys[hole * 2 + 1] = keys[slot * 2 + 1];
+                names[hole] = names[slot];
+                hole = slot;
+            }
+        }
+        used[hole] = false;
+        names[hole] = null;
+        keys[hole * 2] = 0;
+        keys[hole * 2 + 1] = 0;
+    }
+    
+    /**
+     * Check whether a UUID is whitelisted
+     */
+    public boolean contains(UUID uniqueId) {
+        lock.readLock().lock();
+        try {
+            return used[findSlot(uniqueId.getMostSignificantBits(), uniqueId.getLeastSignificantBits())];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Look up a whitelisted player by name
+     * @param name The name, matched case-insensitively
+     * @return The UUID, or null if no whitelisted player has that name
+     */
+    public UUID getByName(String name) {
+        lock.readLock().lock();
+        try {
+            return byName.get(name.toLowerCase());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Look up the name of a whitelisted player
+     * @param uniqueId The player's UUID
+     * @return The name, or null if the player is not whitelisted or the name is unknown
+     */
+    public String getName(UUID uniqueId) {
+        lock.readLock().lock();
+        try {
+            return names[findSlot(uniqueId.getMostSignificantBits(), uniqueId.getLeastSignificantBits())];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Visit every known whitelisted name without copying the index.
+     * The consumer runs under the read lock and must not modify the index.
+     */
+    public void forEachName(Consumer<String> consumer) {
+        lock.readLock().lock();
+        try {
+            for (String name : names) {
+                if (name != null) {
+                    consumer.accept(name);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Copy every known whitelisted name into a list, consistent with the returned version
+     * @param target The list to append to
+     * @return The version the copied names correspond to
+     */
+    public long copyNames(List<String> target) {
+        lock.readLock().lock();
+        try {
+            for (String name : names) {
+                if (name != null) {
+                    target.add(name);
+                }
+            }
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Copy every entry into a map, consistent with the returned version
+     * @param target The map to add UUID to display name entries to (name may be null)
+     * @return The version the copied entries correspond to
+     */
+    public long copyEntries(Map<UUID, String> target) {
+        lock.readLock().lock();
+        try {
+            for (int slot = 0; slot < used.length; slot++) {
+                if (used[slot]) {
+                    target.put(new UUID(keys[slot * 2], keys[slot * 2 + 1]), names[slot]);
+                }
+            }
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Get the modification counter, incremented by every change that adds, renames or removes a player
+     */
+    public long getVersion() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
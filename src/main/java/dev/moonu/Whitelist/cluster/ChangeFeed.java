@@ -0,0 +1,101 @@
+package dev.moonu.Whitelist.cluster;
+
+import dev.moonu.Whitelist.WhitelistListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The leader's ordered log of whitelist changes.
+ * Every change gets the next sequence number; the most recent {@code capacity} changes are kept in a ring
+ * so reconnecting followers can catch up. A follower further behind than that, or one that followed a
+ * different feed, needs a snapshot instead.
+ */
+public class ChangeFeed implements WhitelistListener {
+    private final UUID feedId;
+    private final ClusterChange[] history;
+    private final long firstSequence;
+    private long lastSequence;
+    
+    /**
+     * @param feedId Identifies this sequence of changes; followers of another feed cannot resume from it
+     * @param lastSequence The sequence number the feed continues from
+     * @param capacity Number of changes kept for followers catching up
+     */
+    public ChangeFeed(UUID feedId, long lastSequence, int capacity) {
+        this.feedId = feedId;
+        this.history = new ClusterChange[Math.max(1, capacity)];
+        this.firstSequence = lastSequence + 1;
+        this.lastSequence = lastSequence;
+    }
+    
+    @Override
+    public void onWhitelistChanged(UUID uniqueId, String name, boolean whitelisted) {
+        publish(uniqueId, name, whitelisted);
+    }
+    
+    /**
+     * Append a change and wake up the follower links
+     * @return The change's sequence number
+     */
+    public synchronized long publish(UUID uniqueId, String name, boolean whitelisted) {
+        long sequence = ++lastSequence;
+        history[(int) (sequence % history.length)] = new ClusterChange(sequence, uniqueId, name, whitelisted);
+        notifyAll();
+        return sequence;
+    }
+    
+    /**
+     * Check whether a follower at a sequence number can catch up from the history
+     */
+    public synchronized boolean canResume(UUID followerFeedId, long sequence) {
+        return feedId.equals(followerFeedId) && isRetained(sequence);
+    }
+    
+    private boolean isRetained(long sequence) {
+        long oldest = Math.max(firstSequence, lastSequence - history.length + 1);
+        return sequence <= lastSequence && sequence >= oldest - 1;
+    }
+    
+    /**
+     * Wait for changes after a sequence number
+     * @param sequence The last sequence number the caller has
+     * @param max The most changes to return
+     * @param timeoutMillis How long to wait when there is nothing new
+     * @return The changes in order, empty on timeout, or null if the history no longer reaches back to {@code sequence}
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public synchronized List<ClusterChange> awaitAfter(long sequence, int max, long timeoutMillis) throws InterruptedException {
+        if (!isRetained(sequence)) {
+            return null;
+        }
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (lastSequence == sequence) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return Collections.emptyList();
+            }
+            wait(remaining);
+        }
+        if (!isRetained(sequence)) {
+            return null;
+        }
+        
+        int count = (int) Math.min(max, lastSequence - sequence);
+        List<ClusterChange> changes = new ArrayList<>(count);
+        for (long next = sequence + 1; next <= sequence + count; next++) {
+            changes.add(history[(int) (next % history.length)]);
+        }
+        return changes;
+    }
+    
+    public UUID getFeedId() {
+        return feedId;
+    }
+    
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+}
@@ -0,0 +1,39 @@
+package dev.moonu.Whitelist.cluster;
+
+import java.util.UUID;
+
+/**
+ * One whitelist change in the cluster change feed
+ */
+public final class ClusterChange {
+    private final long sequence;
+    private final UUID uniqueId;
+    private final String name;
+    private final boolean whitelisted;
+    
+    public ClusterChange(long sequence, UUID uniqueId, String name, boolean whitelisted) {
+        this.sequence = sequence;
+        this.uniqueId = uniqueId;
+        this.name = name;
+        this.whitelisted = whitelisted;
+    }
+    
+    public long getSequence() {
+        return sequence;
+    }
+    
+    public UUID getUniqueId() {
+        return uniqueId;
+    }
+    
+    /**
+     * Get the player's name, or null if unknown
+     */
+    public String getName() {
+        return name;
+    }
+    
+    public boolean isWhitelisted() {
+        return whitelisted;
+    }
+}
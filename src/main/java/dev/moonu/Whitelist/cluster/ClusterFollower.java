@@ -0,0 +1,247 @@
+package dev.moonu.Whitelist.cluster;
+
+import dev.moonu.Whitelist.MessageManager;
+import dev.moonu.Whitelist.WhitelistManager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Logger;
+
+/**
+ * Applies the leader's whitelist changes to this server.
+ * Changes are read as they arrive and applied in batches of whatever is already buffered, one main-thread task
+ * per batch. The feed id and sequence of the last applied batch are saved, so after a restart the follower
+ * resumes from there instead of receiving a full snapshot. Lost connections are retried with backoff.
+ */
+public class ClusterFollower {
+    private static final long MIN_RETRY_MILLIS = 500;
+    private static final long MAX_RETRY_MILLIS = 30000;
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    
+    private final ClusterSettings settings;
+    private final WhitelistManager whitelistManager;
+    private final MessageManager messageManager;
+    private final Logger logger;
+    private final File positionFile;
+    private volatile FeedPosition position;
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile Socket socket;
+    private Thread thread;
+    
+    public ClusterFollower(ClusterSettings settings, WhitelistManager whitelistManager, MessageManager messageManager,
+                           Logger logger, File dataFolder) {
+        this.settings = settings;
+        this.whitelistManager = whitelistManager;
+        this.messageManager = messageManager;
+        this.logger = logger;
+        this.positionFile = new File(new File(dataFolder, "cluster"), "follower.dat");
+    }
+    
+    /**
+     * Load the saved position and start following the leader in the background
+     */
+    public void start() {
+        try {
+            position = FeedPosition.load(positionFile);
+        } catch (IOException e) {
+            logger.warning(messageManager.getMessage("console.cluster_position_load_failed", "error", e.getMessage()));
+        }
+        if (position == null) {
+            position = new FeedPosition(ClusterProtocol.NO_FEED, 0);
+        }
+        
+        running = true;
+        thread = new Thread(this::run, "DiscordWhitelist-ClusterFollower");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private void run() {
+        long retry = MIN_RETRY_MILLIS;
+        while (running) {
+            try {
+                follow();
+                retry = MIN_RETRY_MILLIS;
+            } catch (RejectedException e) {
+                // A wrong secret or protocol version does not fix itself; stop until the next reload or restart
+                logger.severe(messageManager.getMessage("console.cluster_rejected", "reason", e.getMessage()));
+                running = false;
+                return;
+            } catch (IOException e) {
+                if (!running) return;
+                logger.warning(messageManager.getMessage("console.cluster_disconnected",
+                        "error", String.valueOf(e.getMessage()), "retry", String.valueOf(retry)));
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                connected = false;
+            }
+            
+            try {
+                Thread.sleep(retry);
+            } catch (InterruptedException e) {
+                return;
+            }
+            retry = Math.min(MAX_RETRY_MILLIS, retry * 2);
+        }
+    }
+    
+    /**
+     * Connect, handshake and apply changes until the connection drops
+     */
+    private void follow() throws IOException, InterruptedException {
+        try (Socket socket = new Socket()) {
+            this.socket = socket;
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(settings.getHost(), settings.getPort()), CONNECT_TIMEOUT_MILLIS);
+            socket.setSoTimeout(ClusterProtocol.READ_TIMEOUT_MILLIS);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            
+            FeedPosition current = position;
+            out.writeInt(ClusterProtocol.MAGIC);
+            out.writeInt(ClusterProtocol.VERSION);
+            out.writeUTF(settings.getSecret());
+            ClusterProtocol.writeUuid(out, current.getFeedId());
+            out.writeLong(current.getSequence());
+            out.flush();
+            
+            byte reply = in.readByte();
+            if (reply == ClusterProtocol.REJECT) {
+                throw new RejectedException(in.readUTF());
+            }
+            if (reply != ClusterProtocol.HELLO) {
+                throw new IOException("Unexpected frame " + reply + " in handshake");
+            }
+            UUID feedId = ClusterProtocol.readUuid(in);
+            in.readLong();
+            connected = true;
+            logger.info(messageManager.getMessage("console.cluster_connected",
+                    "host", settings.getHost(), "port", String.valueOf(settings.getPort()),
+                    "sequence", String.valueOf(current.getSequence())));
+            
+            List<ClusterChange> batch = new ArrayList<>();
+            while (running) {
+                byte type = in.readByte();
+                switch (type) {
+                    case ClusterProtocol.CHANGE:
+                        long sequence = in.readLong();
+                        boolean whitelisted = in.readBoolean();
+                        UUID uniqueId = ClusterProtocol.readUuid(in);
+                        batch.add(new ClusterChange(sequence, uniqueId, ClusterProtocol.readName(in), whitelisted));
+                        break;
+                    case ClusterProtocol.SNAPSHOT:
+                        apply(feedId, batch);
+                        applySnapshot(feedId, in);
+                        break;
+                    case ClusterProtocol.HEARTBEAT:
+                        in.readLong();
+                        break;
+                    default:
+                        throw new IOException("Unexpected frame " + type);
+                }
+                
+                // Apply once the buffered frames are used up, so a burst becomes one main-thread task
+                if (in.available() == 0 || batch.size() >= ClusterProtocol.MAX_BATCH) {
+                    apply(feedId, batch);
+                }
+            }
+        } finally {
+            socket = null;
+        }
+    }
+    
+    private void apply(UUID feedId, List<ClusterChange> batch) throws IOException, InterruptedException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        join(whitelistManager.applyReplicatedChanges(new ArrayList<>(batch)));
+        savePosition(new FeedPosition(feedId, batch.get(batch.size() - 1).getSequence()));
+        batch.clear();
+    }
+    
+    private void applySnapshot(UUID feedId, DataInputStream in) throws IOException, InterruptedException {
+        long sequence = in.readLong();
+        int count = in.readInt();
+        Map<UUID, String> entries = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            UUID uniqueId = ClusterProtocol.readUuid(in);
+            entries.put(uniqueId, ClusterProtocol.readName(in));
+        }
+        join(whitelistManager.applyReplicatedSnapshot(entries));
+        savePosition(new FeedPosition(feedId, sequence));
+        logger.info(messageManager.getMessage("console.cluster_snapshot",
+                "count", String.valueOf(count), "sequence", String.valueOf(sequence)));
+    }
+    
+    private static void join(CompletableFuture<?> future) throws IOException, InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Could not apply cluster changes: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+    
+    private void savePosition(FeedPosition applied) {
+        position = applied;
+        try {
+            applied.save(positionFile);
+        } catch (IOException e) {
+            logger.warning(messageManager.getMessage("console.cluster_position_save_failed", "error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Disconnect and stop following
+     */
+    public void stop() {
+        running = false;
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException ignored) {
+            }
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+    
+    public boolean isConnected() {
+        return connected;
+    }
+    
+    /**
+     * Get the sequence number of the last applied change
+     */
+    public long getSequence() {
+        FeedPosition current = position;
+        return current != null ? current.getSequence() : 0;
+    }
+    
+    /**
+     * The leader refused the connection
+     */
+    private static final class RejectedException extends IOException {
+        private static final long serialVersionUID = 1L;
+        
+        private RejectedException(String reason) {
+            super(reason);
+        }
+    }
+}
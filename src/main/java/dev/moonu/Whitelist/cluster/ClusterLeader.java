@@ -0,0 +1,244 @@
+package dev.moonu.Whitelist.cluster;
+
+import dev.moonu.Whitelist.MessageManager;
+import dev.moonu.Whitelist.WhitelistManager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Logger;
+
+/**
+ * Publishes whitelist changes to follower servers.
+ * Each follower gets its own link thread that streams the {@link ChangeFeed} from the follower's last
+ * sequence number, writing every pending change before one flush, so a burst travels in one TCP write.
+ * The feed id and sequence are saved on a clean stop; after a crash the leader starts a new feed and
+ * followers resynchronize from a snapshot.
+ * At most {@link #MAX_CONNECTIONS} connections are served at once, and one that has not completed the
+ * shared-secret handshake within a few seconds is dropped, so the port cannot be used to pile up threads.
+ */
+public class ClusterLeader {
+    private static final int MAX_CONNECTIONS = 64;
+    
+    private final ClusterSettings settings;
+    private final WhitelistManager whitelistManager;
+    private final MessageManager messageManager;
+    private final Logger logger;
+    private final File positionFile;
+    private final Set<Socket> links = ConcurrentHashMap.newKeySet();
+    private final Semaphore connectionSlots = new Semaphore(MAX_CONNECTIONS);
+    private ChangeFeed feed;
+    private ServerSocket serverSocket;
+    private volatile boolean running;
+    
+    public ClusterLeader(ClusterSettings settings, WhitelistManager whitelistManager, MessageManager messageManager,
+                         Logger logger, File dataFolder) {
+        this.settings = settings;
+        this.whitelistManager = whitelistManager;
+        this.messageManager = messageManager;
+        this.logger = logger;
+        this.positionFile = new File(new File(dataFolder, "cluster"), "leader.dat");
+    }
+    
+    /**
+     * Resume or start the change feed, begin recording whitelist changes and listen for followers
+     * @throws IOException If the port cannot be bound
+     */
+    public void start() throws IOException {
+        FeedPosition position = FeedPosition.load(positionFile);
+        // Only a clean stop leaves the file behind; its absence later means the sequence may have been lost
+        if (position != null && !positionFile.delete()) {
+            position = null;
+        }
+        feed = position != null
+                ? new ChangeFeed(position.getFeedId(), position.getSequence(), settings.getHistory())
+                : new ChangeFeed(UUID.randomUUID(), 0, settings.getHistory());
+        whitelistManager.addListener(feed);
+        
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(settings.getHost(), settings.getPort()));
+        running = true;
+        Thread acceptor = new Thread(this::acceptLoop, "DiscordWhitelist-ClusterLeader");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        logger.info(messageManager.getMessage("console.cluster_listening",
+                "host", settings.getHost(), "port", String.valueOf(settings.getPort())));
+    }
+    
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                if (!connectionSlots.tryAcquire()) {
+                    logger.warning(messageManager.getMessage("console.cluster_follower_rejected",
+                            "address", String.valueOf(socket.getRemoteSocketAddress()), "reason", "too many connections"));
+                    socket.close();
+                    continue;
+                }
+                Thread link = new Thread(() -> {
+                    try {
+                        serve(socket);
+                    } finally {
+                        connectionSlots.release();
+                    }
+                }, "DiscordWhitelist-ClusterLink-" + socket.getRemoteSocketAddress());
+                link.setDaemon(true);
+                link.start();
+            } catch (IOException e) {
+                if (running) {
+                    logger.warning(messageManager.getMessage("console.cluster_link_failed", "address", "?", "error", e.getMessage()));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Handshake with one follower and stream changes to it until the connection drops
+     */
+    private void serve(Socket socket) {
+        String address = String.valueOf(socket.getRemoteSocketAddress());
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(ClusterProtocol.HANDSHAKE_TIMEOUT_MILLIS);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+            
+            if (in.readInt() != ClusterProtocol.MAGIC || in.readInt() != ClusterProtocol.VERSION) {
+                reject(out, address, "protocol mismatch");
+                return;
+            }
+            String secret = in.readUTF();
+            UUID followerFeed = ClusterProtocol.readUuid(in);
+            long followerSequence = in.readLong();
+            if (!MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8), settings.getSecret().getBytes(StandardCharsets.UTF_8))) {
+                reject(out, address, "wrong secret");
+                return;
+            }
+            socket.setSoTimeout(ClusterProtocol.READ_TIMEOUT_MILLIS);
+            links.add(socket);
+            
+            out.writeByte(ClusterProtocol.HELLO);
+            ClusterProtocol.writeUuid(out, feed.getFeedId());
+            out.writeLong(feed.getLastSequence());
+            long sent = feed.canResume(followerFeed, followerSequence) ? followerSequence : writeSnapshot(out);
+            out.flush();
+            logger.info(messageManager.getMessage("console.cluster_follower_joined", "address", address, "sequence", String.valueOf(sent)));
+            
+            while (running) {
+                List<ClusterChange> changes = feed.awaitAfter(sent, ClusterProtocol.MAX_BATCH, ClusterProtocol.HEARTBEAT_MILLIS);
+                if (changes == null) {
+                    // Fell further behind than the history reaches
+                    sent = writeSnapshot(out);
+                } else if (changes.isEmpty()) {
+                    out.writeByte(ClusterProtocol.HEARTBEAT);
+                    out.writeLong(sent);
+                } else {
+                    for (ClusterChange change : changes) {
+                        out.writeByte(ClusterProtocol.CHANGE);
+                        out.writeLong(change.getSequence());
+                        out.writeBoolean(change.isWhitelisted());
+                        ClusterProtocol.writeUuid(out, change.getUniqueId());
+                        ClusterProtocol.writeName(out, change.getName());
+                    }
+                    sent = changes.get(changes.size() - 1).getSequence();
+                }
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            if (running && !(e instanceof SocketException && socket.isClosed())) {
+                logger.warning(messageManager.getMessage("console.cluster_link_failed", "address", address, "error", e.getMessage()));
+            }
+        } finally {
+            links.remove(socket);
+        }
+    }
+    
+    private void reject(DataOutputStream out, String address, String reason) throws IOException {
+        out.writeByte(ClusterProtocol.REJECT);
+        out.writeUTF(reason);
+        out.flush();
+        logger.warning(messageManager.getMessage("console.cluster_follower_rejected", "address", address, "reason", reason));
+    }
+    
+    /**
+     * Send the whole whitelist. Changes published after the snapshot's sequence number are sent afterwards;
+     * any already reflected in the snapshot are applied again, which is harmless.
+     * @return The sequence number the snapshot is consistent with
+     */
+    private long writeSnapshot(DataOutputStream out) throws IOException {
+        long sequence = feed.getLastSequence();
+        Map<UUID, String> entries = new HashMap<>();
+        whitelistManager.getWhitelistIndex().copyEntries(entries);
+        
+        out.writeByte(ClusterProtocol.SNAPSHOT);
+        out.writeLong(sequence);
+        out.writeInt(entries.size());
+        for (Map.Entry<UUID, String> entry : entries.entrySet()) {
+            ClusterProtocol.writeUuid(out, entry.getKey());
+            ClusterProtocol.writeName(out, entry.getValue());
+        }
+        return sequence;
+    }
+    
+    /**
+     * Close all follower links and save the feed position for the next start
+     */
+    public void stop() {
+        running = false;
+        if (feed != null) {
+            whitelistManager.removeListener(feed);
+        }
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException ignored) {
+        }
+        for (Socket link : links) {
+            try {
+                link.close();
+            } catch (IOException ignored) {
+            }
+        }
+        
+        if (feed != null) {
+            try {
+                new FeedPosition(feed.getFeedId(), feed.getLastSequence()).save(positionFile);
+            } catch (IOException e) {
+                logger.warning(messageManager.getMessage("console.cluster_position_save_failed", "error", e.getMessage()));
+            }
+        }
+    }
+    
+    /**
+     * Get the number of connected followers
+     */
+    public int getFollowerCount() {
+        return links.size();
+    }
+    
+    /**
+     * Get the sequence number of the latest published change
+     */
+    public long getSequence() {
+        return feed != null ? feed.getLastSequence() : 0;
+    }
+}
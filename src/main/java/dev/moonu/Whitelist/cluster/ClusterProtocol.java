@@ -0,0 +1,51 @@
+package dev.moonu.Whitelist.cluster;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Wire format between leader and followers.
+ * <p>
+ * The follower opens with {@code MAGIC, VERSION, secret, feed id, last sequence}. The leader answers
+ * {@link #HELLO} with its feed id and sequence, or {@link #REJECT} with a reason, then streams frames:
+ * an optional {@link #SNAPSHOT}, followed by {@link #CHANGE}s as they happen and {@link #HEARTBEAT}s while idle.
+ */
+final class ClusterProtocol {
+    static final int MAGIC = 0x44574346; // "DWCF"
+    static final int VERSION = 1;
+    
+    static final byte HELLO = 1;
+    static final byte REJECT = 2;
+    static final byte SNAPSHOT = 3;
+    static final byte CHANGE = 4;
+    static final byte HEARTBEAT = 5;
+    
+    static final UUID NO_FEED = new UUID(0, 0);
+    static final int MAX_BATCH = 512;
+    static final long HEARTBEAT_MILLIS = 2000;
+    static final int READ_TIMEOUT_MILLIS = (int) HEARTBEAT_MILLIS * 3;
+    static final int HANDSHAKE_TIMEOUT_MILLIS = 5000;
+    
+    private ClusterProtocol() {
+    }
+    
+    static void writeUuid(DataOutputStream out, UUID uniqueId) throws IOException {
+        out.writeLong(uniqueId.getMostSignificantBits());
+        out.writeLong(uniqueId.getLeastSignificantBits());
+    }
+    
+    static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+    
+    static void writeName(DataOutputStream out, String name) throws IOException {
+        out.writeUTF(name != null ? name : "");
+    }
+    
+    static String readName(DataInputStream in) throws IOException {
+        String name = in.readUTF();
+        return name.isEmpty() ? null : name;
+    }
+}
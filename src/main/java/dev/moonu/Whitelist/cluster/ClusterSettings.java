@@ -0,0 +1,83 @@
+package dev.moonu.Whitelist.cluster;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Immutable snapshot of the {@code cluster} section of config.yml
+ */
+public class ClusterSettings {
+    /**
+     * The part a server plays in the cluster
+     */
+    public enum Role {
+        /** Standalone server, no cluster */
+        NONE,
+        /** Runs the Discord bot and publishes whitelist changes */
+        LEADER,
+        /** Applies the leader's whitelist changes and runs no bot */
+        FOLLOWER
+    }
+    
+    private final Role role;
+    private final String secret;
+    private final String host;
+    private final int port;
+    private final int history;
+    
+    public ClusterSettings(Role role, String secret, String host, int port, int history) {
+        this.role = role;
+        this.secret = secret;
+        this.host = host;
+        this.port = port;
+        this.history = history;
+    }
+    
+    /**
+     * Read the cluster settings from the plugin configuration
+     * @param config The main plugin configuration
+     * @return The settings; an unknown role is treated as none
+     */
+    public static ClusterSettings load(ConfigurationSection config) {
+        Role role;
+        try {
+            role = Role.valueOf(config.getString("cluster.role", "none").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            role = Role.NONE;
+        }
+        return new ClusterSettings(
+            role,
+            config.getString("cluster.secret", ""),
+            config.getString("cluster.host", "127.0.0.1"),
+            config.getInt("cluster.port", 25590),
+            Math.max(1, config.getInt("cluster.history", 10000)));
+    }
+    
+    public Role getRole() {
+        return role;
+    }
+    
+    /**
+     * Get the shared secret every node presents to the leader
+     */
+    public String getSecret() {
+        return secret;
+    }
+    
+    /**
+     * Get the address the leader listens on, or the followers connect to
+     */
+    public String getHost() {
+        return host;
+    }
+    
+    public int getPort() {
+        return port;
+    }
+    
+    /**
+     * Get the number of changes the leader keeps for followers catching up
+     */
+    public int getHistory() {
+        return history;
+    }
+}
@@ -0,0 +1,64 @@
+package dev.moonu.Whitelist.cluster;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+/**
+ * A feed id and sequence number, persisted so a node can resume where it stopped
+ */
+final class FeedPosition {
+    private final UUID feedId;
+    private final long sequence;
+    
+    FeedPosition(UUID feedId, long sequence) {
+        this.feedId = feedId;
+        this.sequence = sequence;
+    }
+    
+    UUID getFeedId() {
+        return feedId;
+    }
+    
+    long getSequence() {
+        return sequence;
+    }
+    
+    /**
+     * Read a saved position
+     * @return The position, or null if the file does not exist
+     */
+    static FeedPosition load(File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return new FeedPosition(ClusterProtocol.readUuid(in), in.readLong());
+        }
+    }
+    
+    /**
+     * Save the position, replacing the file atomically
+     */
+    void save(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(stream)) {
+            ClusterProtocol.writeUuid(out, feedId);
+            out.writeLong(sequence);
+            out.flush();
+            stream.getFD().sync();
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
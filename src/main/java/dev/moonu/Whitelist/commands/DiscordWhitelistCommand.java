@@ -2,6 +2,14 @@ package dev.moonu.Whitelist.commands;
 
 import dev.moonu.Whitelist.Main;
 import dev.moonu.Whitelist.MessageManager;
+import dev.moonu.Whitelist.cache.NameResolutionCache;
+import dev.moonu.Whitelist.cluster.ClusterFollower;
+import dev.moonu.Whitelist.cluster.ClusterLeader;
+import dev.moonu.Whitelist.audit.AuditLogWriter;
+import dev.moonu.Whitelist.discord.ReplyDispatcher;
+import dev.moonu.Whitelist.metrics.CommandMetrics;
+import dev.moonu.Whitelist.metrics.LatencyHistogram;
+import dev.moonu.Whitelist.metrics.PluginMetrics;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.jetbrains.annotations.NotNull;
@@ -100,10 +108,73 @@ public class DiscordWhitelistCommand implements GameCommandHandler {
         }
         
         boolean botConnected = plugin.getDiscordBotManager().isConnected();
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put("status", botConnected ? "Connected" : "Disconnected");
         
-        sender.sendMessage(messageManager.getMessage("game.bot_status", placeholders));
+        sender.sendMessage(messageManager.getMessage("game.bot_status", "status", botConnected ? "Connected" : "Disconnected"));
+        
+        NameResolutionCache nameCache = plugin.getWhitelistManager().getNameCache();
+        long hits = nameCache.getHits();
+        long lookups = hits + nameCache.getMisses();
+        sender.sendMessage(messageManager.getMessage("game.name_cache_status",
+                "size", String.valueOf(nameCache.size()),
+                "hits", String.valueOf(hits),
+                "misses", String.valueOf(nameCache.getMisses()),
+                "hit_rate", lookups == 0 ? "0" : String.valueOf(hits * 100 / lookups)));
+        
+        ReplyDispatcher replies = plugin.getDiscordCommandManager().getReplyDispatcher();
+        sender.sendMessage(messageManager.getMessage("game.reply_status",
+                "queued", String.valueOf(replies.getMessagesQueued()),
+                "coalesced", String.valueOf(replies.getMessagesCoalesced()),
+                "saved", String.valueOf(replies.getRestCallsSaved())));
+        
+        PluginMetrics metrics = plugin.getMetrics();
+        for (Map.Entry<String, CommandMetrics> entry : new TreeMap<>(metrics.getCommands()).entrySet()) {
+            CommandMetrics command = entry.getValue();
+            sender.sendMessage(messageManager.getMessage("game.command_metrics",
+                    "command", entry.getKey(),
+                    "success", String.valueOf(command.getSucceeded().sum()),
+                    "failure", String.valueOf(command.getFailed().sum()),
+                    "errors", String.valueOf(command.getErrors().sum()),
+                    "limited", String.valueOf(command.getRateLimited().sum()),
+                    "denied", String.valueOf(command.getDenied().sum()),
+                    "busy", String.valueOf(command.getRejected().sum()),
+                    "p50", millis(command.getExecuteLatency(), 0.5),
+                    "p99", millis(command.getExecuteLatency(), 0.99)));
+        }
+        sender.sendMessage(messageManager.getMessage("game.latency_status",
+                "lookup_p50", millis(metrics.getNameResolution(), 0.5),
+                "lookup_p99", millis(metrics.getNameResolution(), 0.99),
+                "wait_p50", millis(metrics.getMainThreadWait(), 0.5),
+                "wait_p99", millis(metrics.getMainThreadWait(), 0.99),
+                "apply_p50", millis(metrics.getMainThreadApply(), 0.5),
+                "apply_p99", millis(metrics.getMainThreadApply(), 0.99),
+                "reply_p50", millis(metrics.getReplySend(), 0.5),
+                "reply_p99", millis(metrics.getReplySend(), 0.99)));
+        
+        AuditLogWriter auditLog = plugin.getWhitelistManager().getAuditLog();
+        sender.sendMessage(messageManager.getMessage("game.queue_status",
+                "in_flight", String.valueOf(plugin.getDiscordCommandManager().getCommandExecutor().getInFlight()),
+                "audit", String.valueOf(auditLog.getQueueDepth()),
+                "dropped", String.valueOf(auditLog.getDropped())));
+        
+        ClusterLeader clusterLeader = plugin.getClusterLeader();
+        if (clusterLeader != null) {
+            sender.sendMessage(messageManager.getMessage("game.cluster_leader_status",
+                    "followers", String.valueOf(clusterLeader.getFollowerCount()),
+                    "sequence", String.valueOf(clusterLeader.getSequence())));
+        }
+        ClusterFollower clusterFollower = plugin.getClusterFollower();
+        if (clusterFollower != null) {
+            sender.sendMessage(messageManager.getMessage("game.cluster_follower_status",
+                    "status", clusterFollower.isConnected() ? "Connected" : "Disconnected",
+                    "sequence", String.valueOf(clusterFollower.getSequence())));
+        }
         return true;
     }
+    
+    /**
+     * Format a histogram quantile in milliseconds
+     */
+    private static String millis(LatencyHistogram histogram, double quantile) {
+        return String.format(Locale.ROOT, "%.2f", histogram.percentile(quantile) / 1_000_000.0);
+    }
 }
@@ -0,0 +1,61 @@
+package dev.moonu.Whitelist.discord;
+
+import dev.moonu.Whitelist.util.LongHashSet;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.User;
+
+import java.util.List;
+
+/**
+ * Immutable set of Discord users and roles allowed to manage the whitelist.
+ * A new instance is built on every configuration load and published together with the command table,
+ * so permission checks never see a half-updated set.
+ */
+public final class Authorization {
+    private final LongHashSet userIds;
+    private final LongHashSet roleIds;
+    
+    public Authorization(LongHashSet userIds, LongHashSet roleIds) {
+        this.userIds = userIds;
+        this.roleIds = roleIds;
+    }
+    
+    /**
+     * Check whether a user, or one of the member's roles, is authorized
+     * @param user The invoking user
+     * @param member The invoking member, or null outside of a guild
+     * @return true if authorized
+     */
+    public boolean isAuthorized(User user, Member member) {
+        if (userIds.contains(user.getIdLong())) {
+            return true;
+        }
+        if (member == null || roleIds.isEmpty()) {
+            return false;
+        }
+        
+        // Roles come with the message or interaction payload, no extra lookup is made
+        List<Role> roles = member.getRoles();
+        for (int i = 0; i < roles.size(); i++) {
+            if (roleIds.contains(roles.get(i).getIdLong())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Get the authorized user IDs
+     */
+    public LongHashSet getUserIds() {
+        return userIds;
+    }
+    
+    /**
+     * Get the authorized role IDs
+     */
+    public LongHashSet getRoleIds() {
+        return roleIds;
+    }
+}
@@ -0,0 +1,52 @@
+package dev.moonu.Whitelist.discord;
+
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.utils.FileUpload;
+
+import java.util.List;
+
+/**
+ * The invocation a Discord command is answering, independent of whether it came
+ * from a prefixed chat message or a slash command interaction
+ */
+public interface CommandContext {
+    
+    /**
+     * Get the user who invoked the command
+     * @return The invoking user
+     */
+    User getAuthor();
+    
+    /**
+     * Get the invoking guild member
+     * @return The member, or null outside of a guild
+     */
+    Member getMember();
+    
+    /**
+     * Get the files attached to the invocation
+     * @return The attachments, empty if there are none
+     */
+    List<Message.Attachment> getAttachments();
+    
+    /**
+     * Get the prefix to show in usage and help messages (e.g. "!" or "/")
+     * @return Command prefix
+     */
+    String getCommandPrefix();
+    
+    /**
+     * Send a reply to the invocation
+     * @param content The message content
+     */
+    void reply(String content);
+    
+    /**
+     * Send a reply with a file attached
+     * @param content The message content
+     * @param file The file to attach
+     */
+    void replyWithFile(String content, FileUpload file);
+}
@@ -0,0 +1,101 @@
+package dev.moonu.Whitelist.discord;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs Discord commands off JDA's event thread, one virtual thread per command.
+ * At most {@code maxConcurrent} commands run at once; up to {@code maxQueued} more wait for a slot
+ * (a parked virtual thread costs next to nothing), and anything beyond that is refused.
+ */
+public class CommandExecutor {
+    private final ExecutorService executor;
+    private final Semaphore running;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    
+    public CommandExecutor(int maxConcurrent, int maxQueued) {
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("DiscordWhitelist-Command-", 0).factory());
+        this.running = new Semaphore(Math.max(1, maxConcurrent));
+        this.maxInFlight = Math.max(1, maxConcurrent) + Math.max(0, maxQueued);
+    }
+    
+    /**
+     * Run a command on its own virtual thread
+     * @param task The command to run
+     * @return false if the executor is saturated or shut down and the command was not accepted
+     */
+    public boolean submit(Runnable task) {
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        
+        try {
+            executor.execute(() -> {
+                try {
+                    running.acquireUninterruptibly();
+                    try {
+                        task.run();
+                    } finally {
+                        running.release();
+                    }
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+    }
+    
+    /**
+     * Stop accepting commands; those already submitted still run to completion
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    /**
+     * Stop accepting commands and wait for running ones to finish
+     * @param timeout How long to wait
+     * @param unit The unit of the timeout
+     * @return true if every command finished in time
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        executor.shutdown();
+        try {
+            if (executor.awaitTermination(timeout, unit)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+        return false;
+    }
+    
+    /**
+     * Get the number of commands running or waiting for a slot
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    /**
+     * Get the number of commands refused because the executor was saturated
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
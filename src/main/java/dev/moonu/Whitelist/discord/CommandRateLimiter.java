@@ -0,0 +1,139 @@
+package dev.moonu.Whitelist.discord;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets for one Discord command, one per user and one per guild.
+ * Each bucket is a single CAS-updated timestamp (the generic cell rate algorithm): the time at which
+ * the bucket would be full again. A bucket whose timestamp has passed is full and carries no state,
+ * so such buckets are swept out periodically and memory stays bounded by the recently active users.
+ */
+public class CommandRateLimiter {
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    
+    private final Limit userLimit;
+    private final Limit guildLimit;
+    private final ConcurrentHashMap<Long, Bucket> users = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Bucket> guilds = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep;
+    
+    public CommandRateLimiter(RateLimit rateLimit) {
+        this.userLimit = Limit.of(rateLimit.getUserPerMinute(), rateLimit.getUserBurst());
+        this.guildLimit = Limit.of(rateLimit.getGuildPerMinute(), rateLimit.getGuildBurst());
+        this.nextSweep = new AtomicLong(System.nanoTime() + SWEEP_INTERVAL_NANOS);
+    }
+    
+    /**
+     * Emission interval and burst tolerance of one kind of bucket, or null when unlimited
+     */
+    private static final class Limit {
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        
+        private Limit(long intervalNanos, long toleranceNanos) {
+            this.intervalNanos = intervalNanos;
+            this.toleranceNanos = toleranceNanos;
+        }
+        
+        private static Limit of(int perMinute, int burst) {
+            if (perMinute <= 0) {
+                return null;
+            }
+            long interval = TimeUnit.MINUTES.toNanos(1) / perMinute;
+            return new Limit(interval, interval * (burst - 1));
+        }
+    }
+    
+    /**
+     * Timestamp at which the bucket is full again, plus whether the current cooldown was announced
+     */
+    private static final class Bucket {
+        private final AtomicLong fullAt;
+        private final AtomicBoolean notified = new AtomicBoolean();
+        
+        private Bucket(long fullAt) {
+            this.fullAt = new AtomicLong(fullAt);
+        }
+    }
+    
+    /**
+     * Take one token from the user's and the guild's bucket
+     * @param userId The invoking user
+     * @param guildId The guild, or 0 for direct messages
+     * @return 0 if the command may run, otherwise the nanoseconds until it may
+     */
+    public long tryAcquire(long userId, long guildId) {
+        long now = System.nanoTime();
+        sweepIfDue(now);
+        
+        // The user's own bucket goes first so a single spammer never drains the guild's budget
+        Bucket user = userLimit == null ? null : bucket(users, userId, now);
+        long wait = acquire(user, userLimit, now);
+        if (wait == 0 && guildId != 0 && guildLimit != null) {
+            wait = acquire(bucket(guilds, guildId, now), guildLimit, now);
+            if (wait > 0 && user != null) {
+                // Give the user's token back, the command did not run
+                user.fullAt.addAndGet(-userLimit.intervalNanos);
+            }
+        }
+        if (wait == 0 && user != null && user.notified.get()) {
+            user.notified.set(false);
+        }
+        return wait;
+    }
+    
+    /**
+     * Mark the user's current cooldown as announced
+     * @param userId The throttled user
+     * @return true the first time per cooldown, so only one notice is sent
+     */
+    public boolean markNotified(long userId) {
+        Bucket bucket = users.get(userId);
+        return bucket == null || bucket.notified.compareAndSet(false, true);
+    }
+    
+    private static Bucket bucket(ConcurrentHashMap<Long, Bucket> buckets, long key, long now) {
+        Bucket bucket = buckets.get(key);
+        return bucket != null ? bucket : buckets.computeIfAbsent(key, k -> new Bucket(now));
+    }
+    
+    private static long acquire(Bucket bucket, Limit limit, long now) {
+        if (bucket == null) {
+            return 0;
+        }
+        
+        while (true) {
+            long fullAt = bucket.fullAt.get();
+            long next = Math.max(fullAt, now) + limit.intervalNanos;
+            long wait = next - now - limit.intervalNanos - limit.toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.fullAt.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+    
+    /**
+     * Drop full buckets at most once per interval, from whichever caller gets there first
+     */
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+            return;
+        }
+        users.values().removeIf(bucket -> bucket.fullAt.get() - now <= 0);
+        guilds.values().removeIf(bucket -> bucket.fullAt.get() - now <= 0);
+    }
+    
+    /**
+     * Get the number of buckets currently held
+     */
+    public int size() {
+        return users.size() + guilds.size();
+    }
+}
@@ -0,0 +1,74 @@
+package dev.moonu.Whitelist.discord;
+
+import java.util.Arrays;
+
+/**
+ * Whitespace tokenizer for command messages that works on the raw content in place,
+ * so a message can be inspected and rejected without allocating
+ */
+public final class CommandTokenizer {
+    private static final String[] NO_TOKENS = new String[0];
+    
+    private CommandTokenizer() {
+    }
+    
+    /**
+     * Find the first non-whitespace character at or after an index
+     * @param content The message content
+     * @param from The index to start at
+     * @return The index of the first non-whitespace character, or the content length
+     */
+    public static int skipWhitespace(String content, int from) {
+        int length = content.length();
+        while (from < length && Character.isWhitespace(content.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+    
+    /**
+     * Find the end of the token starting at an index
+     * @param content The message content
+     * @param from The index of the token's first character
+     * @return The index just past the token's last character
+     */
+    public static int tokenEnd(String content, int from) {
+        int length = content.length();
+        while (from < length && !Character.isWhitespace(content.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+    
+    /**
+     * Check whether the content, after leading whitespace, starts with a prefix
+     * @param content The message content
+     * @param prefix The command prefix
+     * @return The index just past the prefix, or -1 if the content does not start with it
+     */
+    public static int matchPrefix(String content, String prefix) {
+        int start = skipWhitespace(content, 0);
+        return content.startsWith(prefix, start) ? start + prefix.length() : -1;
+    }
+    
+    /**
+     * Split the content from an index into whitespace separated tokens
+     * @param content The message content
+     * @param from The index to start at
+     * @return The tokens, empty if there are none
+     */
+    public static String[] split(String content, int from) {
+        String[] tokens = NO_TOKENS;
+        int count = 0;
+        int start = skipWhitespace(content, from);
+        while (start < content.length()) {
+            int end = tokenEnd(content, start);
+            if (count == tokens.length) {
+                tokens = Arrays.copyOf(tokens, Math.max(4, count * 2));
+            }
+            tokens[count++] = content.substring(start, end);
+            start = skipWhitespace(content, end);
+        }
+        return count == tokens.length ? tokens : Arrays.copyOf(tokens, count);
+    }
+}
@@ -0,0 +1,82 @@
+package dev.moonu.Whitelist.discord;
+
+import java.util.Arrays;
+
+/**
+ * Case-insensitive trie of command names and aliases.
+ * Lookups walk a region of the raw message content directly, so routing a message
+ * needs no substring, lowercase copy or hash computation.
+ */
+public final class CommandTrie {
+    private final Node root = new Node();
+    private int size;
+    
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private DiscordCommand command;
+        
+        private Node child(char key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+        
+        private Node addChild(char key) {
+            Node child = child(key);
+            if (child == null) {
+                child = new Node();
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                keys[keys.length - 1] = key;
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+    }
+    
+    /**
+     * Map a command name or alias to a command, replacing any earlier mapping
+     * @param name The name or alias
+     * @param command The command it routes to
+     */
+    public void put(String name, DiscordCommand command) {
+        Node node = root;
+        for (int i = 0; i < name.length(); i++) {
+            node = node.addChild(fold(name.charAt(i)));
+        }
+        if (node.command == null) {
+            size++;
+        }
+        node.command = command;
+    }
+    
+    /**
+     * Find the command whose name or alias equals a region of the content, ignoring case
+     * @param content The message content
+     * @param from The index of the region's first character
+     * @param to The index just past the region's last character
+     * @return The command, or null if the region is not a known name
+     */
+    public DiscordCommand get(String content, int from, int to) {
+        Node node = root;
+        for (int i = from; i < to && node != null; i++) {
+            node = node.child(fold(content.charAt(i)));
+        }
+        return node == null ? null : node.command;
+    }
+    
+    /**
+     * Get the number of names and aliases mapped
+     */
+    public int size() {
+        return size;
+    }
+    
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
@@ -1,6 +1,7 @@
 package dev.moonu.Whitelist.discord;
 
-import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
 
 /**
  * Interface for Discord command handlers
@@ -9,10 +10,10 @@ public interface DiscordCommand {
     
     /**
      * Execute the Discord command
-     * @param event The message received event
+     * @param context The invocation to answer
      * @param args Command arguments (excluding the command name)
      */
-    void execute(MessageReceivedEvent event, String[] args);
+    void execute(CommandContext context, String[] args);
     
     /**
      * Get the command name (e.g., "whitelist", "wl")
@@ -40,8 +41,25 @@ public interface DiscordCommand {
     
     /**
      * Check if the user has permission to use this command
-     * @param event The message received event
+     * @param context The invocation to check
      * @return true if user has permission
      */
-    boolean hasPermission(MessageReceivedEvent event);
+    boolean hasPermission(CommandContext context);
+    
+    /**
+     * Describe this command for slash command registration
+     * @return The slash command definition, or null if the command is only available with the prefix
+     */
+    default SlashCommandData getSlashCommandData() {
+        return null;
+    }
+    
+    /**
+     * Translate the options of a slash invocation into the same arguments the prefix form would pass
+     * @param event The slash command interaction
+     * @return Command arguments (excluding the command name)
+     */
+    default String[] getSlashArguments(SlashCommandInteractionEvent event) {
+        return new String[0];
+    }
 }
@@ -2,114 +2,333 @@ package dev.moonu.Whitelist.discord;
 
 import dev.moonu.Whitelist.Main;
 import dev.moonu.Whitelist.MessageManager;
-import net.dv8tion.jda.api.entities.Message;
+import dev.moonu.Whitelist.metrics.CommandMetrics;
+import dev.moonu.Whitelist.metrics.MetricsRegistry;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.events.session.ReadyEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import net.dv8tion.jda.api.requests.GatewayIntent;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Manages and routes Discord commands
+ * Manages and routes Discord commands.
+ * Commands are either read from prefixed chat messages or registered as slash commands; slash mode only needs
+ * the guilds intent, so the bot is not sent the guilds' message traffic.
+ * The settings and command table form one immutable snapshot that {@link #reconfigure} replaces atomically,
+ * so the listener can stay registered on a live JDA session across plugin reloads.
+ * Messages are matched, rate limited and permission checked on JDA's event thread; the command itself
+ * runs on a virtual thread so a slow command does not hold up later events.
  */
 public class DiscordCommandManager extends ListenerAdapter {
+    private static final Set<GatewayIntent> PREFIX_INTENTS = Collections.unmodifiableSet(
+            EnumSet.of(GatewayIntent.GUILDS, GatewayIntent.GUILD_MESSAGES, GatewayIntent.MESSAGE_CONTENT));
+    // Guilds and their roles stay cached, which role-based authorization and interactions rely on
+    private static final Set<GatewayIntent> SLASH_INTENTS = Collections.unmodifiableSet(EnumSet.of(GatewayIntent.GUILDS));
+    
     private final Main plugin;
     private final MessageManager messageManager;
-    private final String commandPrefix;
-    private final Map<String, DiscordCommand> commands;
-    private final Map<String, String> aliases;
+    private final ReplyDispatcher replies;
+    private volatile CommandRegistry registry;
     
-    public DiscordCommandManager(Main plugin, MessageManager messageManager, String commandPrefix) {
+    public DiscordCommandManager(Main plugin, MessageManager messageManager, DiscordSettings settings) {
         this.plugin = plugin;
         this.messageManager = messageManager;
-        this.commandPrefix = commandPrefix;
-        this.commands = new HashMap<>();
-        this.aliases = new HashMap<>();
+        this.replies = new ReplyDispatcher(settings.getReplyWindowMillis(), plugin.getMetrics().getReplySend());
+        this.registry = new CommandRegistry(settings, Collections.emptyMap(), new CommandTrie(), Collections.emptyMap(),
+                new CommandExecutor(settings.getMaxConcurrentCommands(), settings.getMaxQueuedCommands()));
+    }
+    
+    /**
+     * Settings and command table in effect for one configuration
+     */
+    private static final class CommandRegistry {
+        private final DiscordSettings settings;
+        private final String prefix;
+        private final boolean slashCommands;
+        private final Map<String, DiscordCommand> commands;
+        private final CommandTrie routes;
+        private final Map<DiscordCommand, CommandRateLimiter> rateLimiters;
+        private final CommandExecutor executor;
+        
+        private CommandRegistry(DiscordSettings settings, Map<String, DiscordCommand> commands, CommandTrie routes,
+                                Map<DiscordCommand, CommandRateLimiter> rateLimiters, CommandExecutor executor) {
+            this.settings = settings;
+            this.prefix = settings.getCommandPrefix();
+            this.slashCommands = settings.isSlashCommands();
+            this.commands = commands;
+            this.routes = routes;
+            this.rateLimiters = rateLimiters;
+            this.executor = executor;
+        }
+    }
+    
+    /**
+     * Rebuild the command table for a new configuration and publish it in one step.
+     * Events already being handled finish with the previous table, and commands already running finish on the
+     * previous executor; rate limit buckets start over.
+     * @param settings The new Discord settings
+     */
+    public void reconfigure(DiscordSettings settings) {
+        Map<String, DiscordCommand> commands = new HashMap<>();
+        CommandTrie routes = new CommandTrie();
+        registerCommands(settings.getAuthorization(), commands, routes);
+        
+        Map<DiscordCommand, CommandRateLimiter> rateLimiters = new HashMap<>();
+        for (DiscordCommand command : commands.values()) {
+            rateLimiters.put(command, new CommandRateLimiter(settings.getRateLimit(command.getName())));
+        }
+        
+        CommandRegistry previous = registry;
+        registry = new CommandRegistry(settings, Map.copyOf(commands), routes, Map.copyOf(rateLimiters),
+                new CommandExecutor(settings.getMaxConcurrentCommands(), settings.getMaxQueuedCommands()));
+        previous.executor.shutdown();
+        replies.setWindowMillis(settings.getReplyWindowMillis());
+        plugin.getLogger().info("Registered " + commands.size() + " Discord commands");
     }
     
     /**
      * Register all Discord commands
      */
-    public void registerCommands(Map<String, Boolean> authorizedUserIds) {
+    private void registerCommands(Authorization authorization, Map<String, DiscordCommand> commands, CommandTrie routes) {
         // Register whitelist command
         WhitelistDiscordCommand whitelistCommand = new WhitelistDiscordCommand(
-            plugin, messageManager, plugin.getWhitelistManager(), authorizedUserIds);
-        registerCommand(whitelistCommand);
-        
-        plugin.getLogger().info("Registered " + commands.size() + " Discord commands");
+            plugin, messageManager, plugin.getWhitelistManager(), authorization);
+        registerCommand(whitelistCommand, commands, routes);
     }
     
     /**
      * Register a Discord command
      */
-    private void registerCommand(DiscordCommand command) {
+    private void registerCommand(DiscordCommand command, Map<String, DiscordCommand> commands, CommandTrie routes) {
         commands.put(command.getName().toLowerCase(), command);
+        routes.put(command.getName(), command);
         
         // Register aliases
         for (String alias : command.getAliases()) {
-            aliases.put(alias.toLowerCase(), command.getName().toLowerCase());
+            routes.put(alias, command);
         }
     }
     
+    /**
+     * Get the gateway intents this listener needs
+     */
+    public Set<GatewayIntent> getRequiredIntents() {
+        return registry.slashCommands ? SLASH_INTENTS : PREFIX_INTENTS;
+    }
+    
     @Override
     public void onReady(ReadyEvent event) {
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put("botname", event.getJDA().getSelfUser().getName());
-        plugin.getLogger().info(messageManager.getMessage("console.bot_ready", placeholders));
+        plugin.getLogger().info(messageManager.getMessage("console.bot_ready", "botname", event.getJDA().getSelfUser().getName()));
+        
+        // Publish the slash commands, or clear stale ones when running in prefix mode
+        CommandRegistry registry = this.registry;
+        List<SlashCommandData> slashCommands = new ArrayList<>();
+        if (registry.slashCommands) {
+            for (DiscordCommand command : registry.commands.values()) {
+                SlashCommandData data = command.getSlashCommandData();
+                if (data != null) {
+                    slashCommands.add(data);
+                }
+            }
+        }
+        event.getJDA().updateCommands().addCommands(slashCommands).queue(
+            ignored -> {},
+            error -> plugin.getLogger().warning(messageManager.getMessage("console.slash_update_failed", "error", error.getMessage())));
+    }
+    
+    @Override
+    public void onSlashCommandInteraction(SlashCommandInteractionEvent event) {
+        long received = System.nanoTime();
+        CommandRegistry registry = this.registry;
+        if (!registry.slashCommands) return;
+        
+        DiscordCommand command = registry.commands.get(event.getName());
+        if (command == null) return;
+        
+        long guildId = event.isFromGuild() ? event.getGuild().getIdLong() : 0;
+        if (!registry.settings.isAllowed(guildId, event.getChannelIdLong())) {
+            event.reply(messageManager.getMessage("discord.channel_not_allowed")).setEphemeral(true).queue();
+            return;
+        }
+        
+        CommandContext context = new SlashCommandContext(event);
+        CommandMetrics metrics = plugin.getMetrics().command(command.getName());
+        long wait = registry.rateLimiters.get(command).tryAcquire(event.getUser().getIdLong(), guildId);
+        if (wait > 0) {
+            // An interaction has to be answered, but an ephemeral reply only reaches the invoking user
+            metrics.getRateLimited().increment();
+            event.reply(cooldownMessage(wait)).setEphemeral(true).queue();
+            return;
+        }
+        
+        if (!command.hasPermission(context)) {
+            metrics.getDenied().increment();
+            event.reply(messageManager.getMessage("discord.no_permission")).setEphemeral(true).queue();
+            return;
+        }
+        
+        // Acknowledge within Discord's three second window; replies follow through the interaction hook
+        event.deferReply().queue();
+        String[] args = command.getSlashArguments(event);
+        submit(registry, command, metrics, context, args, received);
     }
     
     @Override
     public void onMessageReceived(MessageReceivedEvent event) {
-        if (event.getAuthor().isBot()) return;
+        long received = System.nanoTime();
         
-        Message message = event.getMessage();
-        String content = message.getContentRaw().trim();
+        // Drop messages from channels commands are not accepted in before looking at anything else
+        CommandRegistry registry = this.registry;
+        long guildId = event.isFromGuild() ? event.getGuild().getIdLong() : 0;
+        if (!registry.settings.isAllowed(guildId, event.getChannel().getIdLong())) return;
         
-        // Check if message starts with command prefix
-        if (!content.startsWith(commandPrefix)) return;
+        if (registry.slashCommands) return;
+        if (event.getAuthor().isBot()) return;
         
-        // Parse command and arguments
-        String[] parts = content.substring(commandPrefix.length()).split("\\s+");
-        if (parts.length == 0) return;
+        String commandPrefix = registry.prefix;
+        String content = event.getMessage().getContentRaw();
         
-        String commandName = parts[0].toLowerCase();
-        String[] args = Arrays.copyOfRange(parts, 1, parts.length);
+        // Reject anything that is not a known command without copying the content
+        int nameStart = CommandTokenizer.matchPrefix(content, commandPrefix);
+        if (nameStart < 0) return;
+        int nameEnd = CommandTokenizer.tokenEnd(content, nameStart);
+        DiscordCommand command = registry.routes.get(content, nameStart, nameEnd);
+        if (command == null) return;
         
-        // Check for alias
-        if (aliases.containsKey(commandName)) {
-            commandName = aliases.get(commandName);
+        // Throttled users get one cooldown notice, further attempts are dropped without a reply
+        CommandMetrics metrics = plugin.getMetrics().command(command.getName());
+        CommandRateLimiter rateLimiter = registry.rateLimiters.get(command);
+        long userId = event.getAuthor().getIdLong();
+        long wait = rateLimiter.tryAcquire(userId, guildId);
+        if (wait > 0) {
+            metrics.getRateLimited().increment();
+            if (rateLimiter.markNotified(userId)) {
+                replies.send(event.getChannel(), cooldownMessage(wait));
+            }
+            return;
         }
         
-        // Find and execute command
-        DiscordCommand command = commands.get(commandName);
-        if (command == null) return;
+        String[] args = CommandTokenizer.split(content, nameEnd);
+        
+        CommandContext context = new MessageCommandContext(event, commandPrefix, replies);
         
         // Check permissions
-        if (!command.hasPermission(event)) {
-            event.getChannel().sendMessage(messageManager.getMessage("discord.no_permission")).queue();
+        if (!command.hasPermission(context)) {
+            metrics.getDenied().increment();
+            context.reply(messageManager.getMessage("discord.no_permission"));
             return;
         }
         
         // Execute command
+        submit(registry, command, metrics, context, args, received);
+    }
+    
+    /**
+     * Hand a command to the executor, recording the time since its event arrived as parse latency
+     */
+    private void submit(CommandRegistry registry, DiscordCommand command, CommandMetrics metrics,
+                        CommandContext context, String[] args, long received) {
+        boolean accepted = registry.executor.submit(() -> execute(command, metrics, context, args));
+        metrics.getParseLatency().recordSince(received);
+        if (!accepted) {
+            metrics.getRejected().increment();
+            context.reply(messageManager.getMessage("discord.busy"));
+        }
+    }
+    
+    /**
+     * Run a command, reporting any error to the log and the invoking channel
+     */
+    private void execute(DiscordCommand command, CommandMetrics metrics, CommandContext context, String[] args) {
+        long start = System.nanoTime();
         try {
-            command.execute(event, args);
+            command.execute(context, args);
+            metrics.getSucceeded().increment();
         } catch (Exception e) {
-            plugin.getLogger().severe("Error executing Discord command '" + commandName + "': " + e.getMessage());
-            event.getChannel().sendMessage(messageManager.getMessage("discord.command_error")).queue();
+            metrics.getFailed().increment();
+            plugin.getLogger().severe("Error executing Discord command '" + command.getName() + "': " + e.getMessage());
+            context.reply(messageManager.getMessage("discord.command_error"));
+        } finally {
+            metrics.getExecuteLatency().recordSince(start);
         }
     }
     
+    /**
+     * Build the cooldown notice for a throttled command
+     * @param waitNanos Time until the command may be used again
+     */
+    private String cooldownMessage(long waitNanos) {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        return messageManager.getMessage("discord.cooldown", "seconds", String.valueOf(seconds));
+    }
+    
+    /**
+     * Register gauges for the command executor and the reply dispatcher.
+     * They read the executor in effect at scrape time, so they follow reloads.
+     * @param registry The registry to add them to
+     */
+    public void registerMetrics(MetricsRegistry registry) {
+        registry.gauge("discordwhitelist_commands_in_flight", "Discord commands running or waiting for a slot", "",
+                () -> this.registry.executor.getInFlight());
+        registry.counter("discordwhitelist_replies_queued_total", "Channel replies handed to the reply dispatcher", "",
+                replies::getMessagesQueued);
+        registry.counter("discordwhitelist_reply_rest_calls_total", "REST calls made to send channel replies", "",
+                replies::getRestCalls);
+        registry.counter("discordwhitelist_replies_coalesced_total", "Channel replies sent merged with others", "",
+                replies::getMessagesCoalesced);
+    }
+    
+    /**
+     * Let running commands finish, then send any buffered replies and stop the reply dispatcher
+     */
+    public void shutdown() {
+        registry.executor.shutdown(5, TimeUnit.SECONDS);
+        replies.shutdown();
+    }
+    
+    /**
+     * Get the executor commands currently run on
+     */
+    public CommandExecutor getCommandExecutor() {
+        return registry.executor;
+    }
+    
+    /**
+     * Get the dispatcher channel replies are sent through
+     */
+    public ReplyDispatcher getReplyDispatcher() {
+        return replies;
+    }
+    
     /**
      * Get all registered commands
      */
     public Map<String, DiscordCommand> getCommands() {
-        return Collections.unmodifiableMap(commands);
+        return registry.commands;
+    }
+    
+    /**
+     * Get the Discord settings in effect
+     */
+    public DiscordSettings getSettings() {
+        return registry.settings;
+    }
+    
+    /**
+     * Check whether commands are answered as slash commands
+     */
+    public boolean isSlashMode() {
+        return registry.slashCommands;
     }
     
     /**
      * Get command prefix
      */
     public String getCommandPrefix() {
-        return commandPrefix;
+        return registry.prefix;
     }
 }
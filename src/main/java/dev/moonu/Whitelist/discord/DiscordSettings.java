@@ -0,0 +1,151 @@
+package dev.moonu.Whitelist.discord;
+
+import dev.moonu.Whitelist.MessageManager;
+import dev.moonu.Whitelist.util.LongHashSet;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Immutable snapshot of the {@code discord} section of config.yml that the command listener works with
+ */
+public class DiscordSettings {
+    private final String commandPrefix;
+    private final boolean slashCommands;
+    private final LongHashSet allowedGuildIds;
+    private final LongHashSet allowedChannelIds;
+    private final Authorization authorization;
+    private final RateLimit defaultRateLimit;
+    private final Map<String, RateLimit> commandRateLimits;
+    private final long replyWindowMillis;
+    private final int maxConcurrentCommands;
+    private final int maxQueuedCommands;
+    
+    public DiscordSettings(String commandPrefix, boolean slashCommands, LongHashSet allowedGuildIds, LongHashSet allowedChannelIds,
+                           Authorization authorization, RateLimit defaultRateLimit, Map<String, RateLimit> commandRateLimits, long replyWindowMillis,
+                           int maxConcurrentCommands, int maxQueuedCommands) {
+        this.commandPrefix = commandPrefix;
+        this.slashCommands = slashCommands;
+        this.allowedGuildIds = allowedGuildIds;
+        this.allowedChannelIds = allowedChannelIds;
+        this.authorization = authorization;
+        this.defaultRateLimit = defaultRateLimit;
+        this.commandRateLimits = Map.copyOf(commandRateLimits);
+        this.replyWindowMillis = replyWindowMillis;
+        this.maxConcurrentCommands = maxConcurrentCommands;
+        this.maxQueuedCommands = maxQueuedCommands;
+    }
+    
+    /**
+     * Read the Discord settings from the plugin configuration
+     * @param config The main plugin configuration
+     * @param messageManager The message manager for console warnings
+     * @param logger The logger to report invalid values to
+     * @return The settings
+     */
+    public static DiscordSettings load(ConfigurationSection config, MessageManager messageManager, Logger logger) {
+        RateLimit defaultRateLimit = RateLimit.load(config.getConfigurationSection("discord.rate_limit.default"), RateLimit.DEFAULT);
+        Map<String, RateLimit> commandRateLimits = new HashMap<>();
+        ConfigurationSection commands = config.getConfigurationSection("discord.rate_limit.commands");
+        if (commands != null) {
+            for (String command : commands.getKeys(false)) {
+                commandRateLimits.put(command.toLowerCase(), RateLimit.load(commands.getConfigurationSection(command), defaultRateLimit));
+            }
+        }
+        
+        return new DiscordSettings(
+            config.getString("discord.prefix", "!"),
+            "slash".equalsIgnoreCase(config.getString("discord.mode", "prefix")),
+            loadIds(config, "discord.allowed_guild_ids", messageManager, logger),
+            loadIds(config, "discord.allowed_channel_ids", messageManager, logger),
+            new Authorization(
+                loadIds(config, "discord.authorized_user_ids", messageManager, logger),
+                loadIds(config, "discord.authorized_role_ids", messageManager, logger)),
+            defaultRateLimit,
+            commandRateLimits,
+            config.getLong("discord.reply_coalesce_ms", 250),
+            config.getInt("discord.executor.max_concurrent", 16),
+            config.getInt("discord.executor.max_queued", 256));
+    }
+    
+    /**
+     * Parse a list of Discord IDs, skipping entries that are not numeric
+     */
+    private static LongHashSet loadIds(ConfigurationSection config, String path, MessageManager messageManager, Logger logger) {
+        List<Long> ids = new ArrayList<>();
+        for (String id : config.getStringList(path)) {
+            try {
+                ids.add(Long.parseUnsignedLong(id.trim()));
+            } catch (NumberFormatException e) {
+                logger.warning(messageManager.getMessage("console.invalid_discord_id", "path", path, "id", id));
+            }
+        }
+        return LongHashSet.of(ids);
+    }
+    
+    /**
+     * Check whether commands may be used in a channel.
+     * An empty allow-list allows everything.
+     * @param guildId The guild ID, or 0 for direct messages
+     * @param channelId The channel ID
+     * @return true if commands from this channel are handled
+     */
+    public boolean isAllowed(long guildId, long channelId) {
+        return (allowedGuildIds.isEmpty() || (guildId != 0 && allowedGuildIds.contains(guildId)))
+                && (allowedChannelIds.isEmpty() || allowedChannelIds.contains(channelId));
+    }
+    
+    /**
+     * Get the rate limit for a command
+     * @param commandName The command name
+     * @return The command's own limit, or the default one
+     */
+    public RateLimit getRateLimit(String commandName) {
+        return commandRateLimits.getOrDefault(commandName.toLowerCase(), defaultRateLimit);
+    }
+    
+    /**
+     * Get how long channel replies are buffered for merging, 0 to send them immediately
+     */
+    public long getReplyWindowMillis() {
+        return replyWindowMillis;
+    }
+    
+    /**
+     * Get how many commands may run at the same time
+     */
+    public int getMaxConcurrentCommands() {
+        return maxConcurrentCommands;
+    }
+    
+    /**
+     * Get how many more commands may wait for a free slot before new ones are refused
+     */
+    public int getMaxQueuedCommands() {
+        return maxQueuedCommands;
+    }
+    
+    public String getCommandPrefix() {
+        return commandPrefix;
+    }
+    
+    public boolean isSlashCommands() {
+        return slashCommands;
+    }
+    
+    public LongHashSet getAllowedGuildIds() {
+        return allowedGuildIds;
+    }
+    
+    public LongHashSet getAllowedChannelIds() {
+        return allowedChannelIds;
+    }
+    
+    public Authorization getAuthorization() {
+        return authorization;
+    }
+}
@@ -0,0 +1,61 @@
+package dev.moonu.Whitelist.discord;
+
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.utils.FileUpload;
+
+import java.util.List;
+
+/**
+ * Command context for a prefixed chat message; replies go to the same channel through the reply dispatcher
+ */
+public class MessageCommandContext implements CommandContext {
+    private final MessageReceivedEvent event;
+    private final String commandPrefix;
+    private final ReplyDispatcher replies;
+    
+    public MessageCommandContext(MessageReceivedEvent event, String commandPrefix, ReplyDispatcher replies) {
+        this.event = event;
+        this.commandPrefix = commandPrefix;
+        this.replies = replies;
+    }
+    
+    @Override
+    public User getAuthor() {
+        return event.getAuthor();
+    }
+    
+    @Override
+    public Member getMember() {
+        return event.getMember();
+    }
+    
+    @Override
+    public List<Message.Attachment> getAttachments() {
+        return event.getMessage().getAttachments();
+    }
+    
+    @Override
+    public String getCommandPrefix() {
+        return commandPrefix;
+    }
+    
+    @Override
+    public void reply(String content) {
+        replies.send(event.getChannel(), content);
+    }
+    
+    @Override
+    public void replyWithFile(String content, FileUpload file) {
+        replies.sendWithFile(event.getChannel(), content, file);
+    }
+    
+    /**
+     * Get the underlying message event
+     */
+    public MessageReceivedEvent getEvent() {
+        return event;
+    }
+}
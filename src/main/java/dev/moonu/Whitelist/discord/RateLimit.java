@@ -0,0 +1,56 @@
+package dev.moonu.Whitelist.discord;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Rates one Discord command may be used at, per user and per guild.
+ * A rate of 0 per minute disables that limit.
+ */
+public class RateLimit {
+    public static final RateLimit DEFAULT = new RateLimit(10, 5, 60, 20);
+    
+    private final int userPerMinute;
+    private final int userBurst;
+    private final int guildPerMinute;
+    private final int guildBurst;
+    
+    public RateLimit(int userPerMinute, int userBurst, int guildPerMinute, int guildBurst) {
+        this.userPerMinute = Math.max(0, userPerMinute);
+        this.userBurst = Math.max(1, userBurst);
+        this.guildPerMinute = Math.max(0, guildPerMinute);
+        this.guildBurst = Math.max(1, guildBurst);
+    }
+    
+    /**
+     * Read a rate limit from a configuration section, taking missing keys from a fallback
+     * @param section The section, may be null
+     * @param fallback The values to use for missing keys
+     * @return The rate limit
+     */
+    public static RateLimit load(ConfigurationSection section, RateLimit fallback) {
+        if (section == null) {
+            return fallback;
+        }
+        return new RateLimit(
+            section.getInt("user_per_minute", fallback.userPerMinute),
+            section.getInt("user_burst", fallback.userBurst),
+            section.getInt("guild_per_minute", fallback.guildPerMinute),
+            section.getInt("guild_burst", fallback.guildBurst));
+    }
+    
+    public int getUserPerMinute() {
+        return userPerMinute;
+    }
+    
+    public int getUserBurst() {
+        return userBurst;
+    }
+    
+    public int getGuildPerMinute() {
+        return guildPerMinute;
+    }
+    
+    public int getGuildBurst() {
+        return guildBurst;
+    }
+}
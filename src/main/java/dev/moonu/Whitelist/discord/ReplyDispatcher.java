@@ -0,0 +1,211 @@
+package dev.moonu.Whitelist.discord;
+
+import dev.moonu.Whitelist.metrics.LatencyHistogram;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.utils.FileUpload;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Buffers outgoing channel replies for a short window and sends them merged.
+ * Replies queued for the same channel within the window are joined with line breaks into as few
+ * messages as fit Discord's length limit, and sent in the order they were queued.
+ * A window of 0 sends every reply immediately.
+ */
+public class ReplyDispatcher {
+    private final ConcurrentHashMap<Long, ChannelBuffer> buffers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final LongAdder messagesQueued = new LongAdder();
+    private final LongAdder messagesCoalesced = new LongAdder();
+    private final LongAdder restCalls = new LongAdder();
+    private final LatencyHistogram sendLatency;
+    private volatile long windowMillis;
+    
+    public ReplyDispatcher(long windowMillis, LatencyHistogram sendLatency) {
+        this.windowMillis = Math.max(0, windowMillis);
+        this.sendLatency = sendLatency;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "DiscordWhitelist-Replies");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Replies waiting to be sent to one channel
+     */
+    private static final class ChannelBuffer {
+        private final MessageChannel channel;
+        private final ArrayDeque<String> pending = new ArrayDeque<>();
+        private boolean scheduled;
+        private boolean retired;
+        
+        private ChannelBuffer(MessageChannel channel) {
+            this.channel = channel;
+        }
+    }
+    
+    /**
+     * Queue a reply to a channel
+     * @param channel The channel to send to
+     * @param content The message content
+     */
+    public void send(MessageChannel channel, String content) {
+        messagesQueued.increment();
+        long window = windowMillis;
+        if (window == 0 || scheduler.isShutdown()) {
+            queue(channel.sendMessage(content));
+            return;
+        }
+        
+        while (true) {
+            ChannelBuffer buffer = buffers.computeIfAbsent(channel.getIdLong(), id -> new ChannelBuffer(channel));
+            synchronized (buffer) {
+                // A buffer is retired once flushed empty; start a fresh one instead
+                if (buffer.retired) continue;
+                buffer.pending.add(content);
+                if (!buffer.scheduled) {
+                    buffer.scheduled = schedule(buffer, window);
+                    if (!buffer.scheduled) {
+                        // Shutting down; nothing will flush the buffer later
+                        buffer.pending.removeLast();
+                        queue(channel.sendMessage(content));
+                    }
+                }
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Send a reply with a file attached, after anything still buffered for the channel
+     * @param channel The channel to send to
+     * @param content The message content
+     * @param file The file to attach
+     */
+    public void sendWithFile(MessageChannel channel, String content, FileUpload file) {
+        ChannelBuffer buffer = buffers.get(channel.getIdLong());
+        if (buffer != null) {
+            flush(buffer);
+        }
+        messagesQueued.increment();
+        queue(channel.sendMessage(content).addFiles(file));
+    }
+    
+    /**
+     * Send everything buffered for a channel, merged into as few messages as possible
+     */
+    private void flush(ChannelBuffer buffer) {
+        List<String> replies;
+        synchronized (buffer) {
+            buffer.scheduled = false;
+            if (buffer.pending.isEmpty()) {
+                buffer.retired = true;
+                buffers.remove(buffer.channel.getIdLong(), buffer);
+                return;
+            }
+            replies = new ArrayList<>(buffer.pending);
+            buffer.pending.clear();
+            
+            // Sending under the lock keeps this channel's replies in order; queue() does not block
+            StringBuilder merged = new StringBuilder(Message.MAX_CONTENT_LENGTH);
+            int parts = 0;
+            for (String reply : replies) {
+                if (parts > 0 && merged.length() + 1 + reply.length() > Message.MAX_CONTENT_LENGTH) {
+                    sendMerged(buffer.channel, merged, parts);
+                    merged.setLength(0);
+                    parts = 0;
+                }
+                if (parts > 0) merged.append('\n');
+                merged.append(reply);
+                parts++;
+            }
+            sendMerged(buffer.channel, merged, parts);
+            
+            // Check back after another window so an idle channel's buffer gets dropped
+            buffer.scheduled = schedule(buffer, Math.max(1, windowMillis));
+        }
+    }
+    
+    private boolean schedule(ChannelBuffer buffer, long delayMillis) {
+        try {
+            scheduler.schedule(() -> flush(buffer), delayMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+    
+    private void sendMerged(MessageChannel channel, StringBuilder merged, int parts) {
+        if (parts > 1) {
+            messagesCoalesced.add(parts);
+        }
+        queue(channel.sendMessage(merged.toString()));
+    }
+    
+    /**
+     * Queue one REST call, timing it until Discord answers
+     */
+    private void queue(RestAction<?> action) {
+        restCalls.increment();
+        long start = System.nanoTime();
+        action.queue(ignored -> sendLatency.recordSince(start), ignored -> sendLatency.recordSince(start));
+    }
+    
+    /**
+     * Change the coalescing window for replies queued from now on
+     * @param windowMillis The window in milliseconds, 0 to send immediately
+     */
+    public void setWindowMillis(long windowMillis) {
+        this.windowMillis = Math.max(0, windowMillis);
+    }
+    
+    /**
+     * Send everything still buffered and stop the scheduler
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        for (ChannelBuffer buffer : buffers.values()) {
+            flush(buffer);
+        }
+        buffers.clear();
+    }
+    
+    /**
+     * Get the number of replies handed to the dispatcher
+     */
+    public long getMessagesQueued() {
+        return messagesQueued.sum();
+    }
+    
+    /**
+     * Get the number of replies that were sent merged with others
+     */
+    public long getMessagesCoalesced() {
+        return messagesCoalesced.sum();
+    }
+    
+    /**
+     * Get the number of REST calls made
+     */
+    public long getRestCalls() {
+        return restCalls.sum();
+    }
+    
+    /**
+     * Get the number of REST calls saved by merging replies
+     */
+    public long getRestCallsSaved() {
+        return messagesQueued.sum() - restCalls.sum();
+    }
+}
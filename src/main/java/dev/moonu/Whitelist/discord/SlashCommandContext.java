@@ -0,0 +1,67 @@
+package dev.moonu.Whitelist.discord;
+
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.utils.FileUpload;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command context for a slash command interaction.
+ * The interaction is deferred before the command runs, so every reply is sent as a follow-up through the hook.
+ */
+public class SlashCommandContext implements CommandContext {
+    private final SlashCommandInteractionEvent event;
+    
+    public SlashCommandContext(SlashCommandInteractionEvent event) {
+        this.event = event;
+    }
+    
+    @Override
+    public User getAuthor() {
+        return event.getUser();
+    }
+    
+    @Override
+    public Member getMember() {
+        return event.getMember();
+    }
+    
+    @Override
+    public List<Message.Attachment> getAttachments() {
+        List<Message.Attachment> attachments = new ArrayList<>(1);
+        for (OptionMapping option : event.getOptions()) {
+            if (option.getType() == OptionType.ATTACHMENT) {
+                attachments.add(option.getAsAttachment());
+            }
+        }
+        return attachments;
+    }
+    
+    @Override
+    public String getCommandPrefix() {
+        return "/";
+    }
+    
+    @Override
+    public void reply(String content) {
+        event.getHook().sendMessage(content).queue();
+    }
+    
+    @Override
+    public void replyWithFile(String content, FileUpload file) {
+        event.getHook().sendMessage(content).addFiles(file).queue();
+    }
+    
+    /**
+     * Get the underlying interaction event
+     */
+    public SlashCommandInteractionEvent getEvent() {
+        return event;
+    }
+}
@@ -2,33 +2,70 @@ package dev.moonu.Whitelist.discord;
 
 import dev.moonu.Whitelist.Main;
 import dev.moonu.Whitelist.MessageManager;
+import dev.moonu.Whitelist.MessageTemplate;
 import dev.moonu.Whitelist.WhitelistManager;
-import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
-import org.bukkit.OfflinePlayer;
+import dev.moonu.Whitelist.audit.AuditAction;
+import dev.moonu.Whitelist.audit.AuditEntry;
+import dev.moonu.Whitelist.audit.AuditPage;
+import dev.moonu.Whitelist.link.LinkRegistry;
+import dev.moonu.Whitelist.WhitelistBatchResult;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import net.dv8tion.jda.api.interactions.commands.build.SubcommandData;
+import net.dv8tion.jda.api.utils.FileUpload;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Handles Discord whitelist commands
  */
 public class WhitelistDiscordCommand implements DiscordCommand {
+    private static final Pattern USERNAME_PATTERN = Pattern.compile("[.*]?[A-Za-z0-9_]{1,16}");
+    private static final Pattern NAME_SEPARATOR = Pattern.compile("[,;\\s]+");
+    private static final int MAX_ATTACHMENT_BYTES = 1024 * 1024;
+    private static final int LIST_PAGE_SIZE = 50;
+    private static final int HISTORY_PAGE_SIZE = 10;
+    private static final Pattern USER_MENTION = Pattern.compile("<@!?(\\d+)>");
+    private static final Pattern DURATION = Pattern.compile("(?i)(?:\\d{1,6}[smhdw])+");
+    private static final Pattern DURATION_PART = Pattern.compile("(?i)(\\d{1,6})([smhdw])");
+    private static final long MAX_DURATION_MILLIS = TimeUnit.DAYS.toMillis(3650);
+    private static final DateTimeFormatter HISTORY_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    
     private final Main plugin;
     private final MessageManager messageManager;
     private final WhitelistManager whitelistManager;
-    private final Map<String, Boolean> authorizedUserIds;
+    private final Authorization authorization;
     
     public WhitelistDiscordCommand(Main plugin, MessageManager messageManager, 
-                                 WhitelistManager whitelistManager, Map<String, Boolean> authorizedUserIds) {
+                                 WhitelistManager whitelistManager, Authorization authorization) {
         this.plugin = plugin;
         this.messageManager = messageManager;
         this.whitelistManager = whitelistManager;
-        this.authorizedUserIds = authorizedUserIds;
+        this.authorization = authorization;
     }
     
     @Override
-    public void execute(MessageReceivedEvent event, String[] args) {
+    public void execute(CommandContext context, String[] args) {
         if (args.length < 1) {
-            sendInvalidUsage(event);
+            sendInvalidUsage(context);
             return;
         }
         
@@ -36,19 +73,25 @@ public class WhitelistDiscordCommand implements DiscordCommand {
         
         switch (action) {
             case "add":
-                handleAdd(event, args);
+                handleAdd(context, args);
                 break;
             case "remove":
-                handleRemove(event, args);
+                handleRemove(context, args);
                 break;
             case "list":
-                handleList(event);
+                handleList(context, args);
+                break;
+            case "history":
+                handleHistory(context, args);
+                break;
+            case "whois":
+                handleWhois(context, args);
                 break;
             case "help":
-                handleHelp(event);
+                handleHelp(context);
                 break;
             default:
-                sendInvalidUsage(event);
+                sendInvalidUsage(context);
                 break;
         }
     }
@@ -70,95 +113,583 @@ public class WhitelistDiscordCommand implements DiscordCommand {
     
     @Override
     public String getUsage() {
-        return "whitelist <add|remove|list|help> [username]";
+        return "whitelist <add|remove|list|history|whois|help> [username...|duration|page|all|export|@user]";
     }
     
     @Override
-    public boolean hasPermission(MessageReceivedEvent event) {
-        return authorizedUserIds.containsKey(event.getAuthor().getId());
+    public boolean hasPermission(CommandContext context) {
+        return authorization.isAuthorized(context.getAuthor(), context.getMember());
+    }
+    
+    @Override
+    public SlashCommandData getSlashCommandData() {
+        return Commands.slash(getName(), getDescription())
+                .setGuildOnly(true)
+                .addSubcommands(
+                    new SubcommandData("add", "Add players to the whitelist")
+                        .addOption(OptionType.STRING, "names", "Player names separated by spaces or commas")
+                        .addOption(OptionType.ATTACHMENT, "file", "A .txt or .csv list of player names")
+                        .addOption(OptionType.STRING, "duration", "How long access lasts, e.g. 2h, 3d or 1d12h")
+                        .addOption(OptionType.USER, "owner", "Discord user owning the account (single player only)"),
+                    new SubcommandData("remove", "Remove players from the whitelist")
+                        .addOption(OptionType.STRING, "names", "Player names separated by spaces or commas")
+                        .addOption(OptionType.ATTACHMENT, "file", "A .txt or .csv list of player names"),
+                    new SubcommandData("list", "Show whitelisted players")
+                        .addOption(OptionType.STRING, "page", "Page number, all or export"),
+                    new SubcommandData("history", "Show who changed the whitelist and when")
+                        .addOption(OptionType.STRING, "player", "Player to show the history of")
+                        .addOption(OptionType.USER, "moderator", "Moderator to show the changes of")
+                        .addOption(OptionType.INTEGER, "page", "Page number"),
+                    new SubcommandData("whois", "Show which Discord user owns an account, or the accounts a user owns")
+                        .addOption(OptionType.STRING, "player", "Player to look up")
+                        .addOption(OptionType.USER, "user", "Discord user to look up"),
+                    new SubcommandData("help", "Display command help"));
+    }
+    
+    @Override
+    public String[] getSlashArguments(SlashCommandInteractionEvent event) {
+        List<String> args = new ArrayList<>();
+        String subcommand = event.getSubcommandName();
+        if (subcommand == null) {
+            return new String[0];
+        }
+        args.add(subcommand);
+        
+        switch (subcommand) {
+            case "add":
+            case "remove":
+                OptionMapping names = event.getOption("names");
+                if (names != null) {
+                    for (String name : NAME_SEPARATOR.split(names.getAsString().trim())) {
+                        if (!name.isEmpty()) {
+                            args.add(name);
+                        }
+                    }
+                }
+                OptionMapping duration = event.getOption("duration");
+                if (duration != null) {
+                    // A malformed duration must not be taken for a name; "0s" is rejected as invalid usage
+                    String value = duration.getAsString().trim();
+                    args.add(DURATION.matcher(value).matches() ? value : "0s");
+                }
+                OptionMapping owner = event.getOption("owner");
+                if (owner != null) {
+                    args.add("<@" + owner.getAsLong() + ">");
+                }
+                break;
+            case "list":
+                addOption(args, event.getOption("page"));
+                break;
+            case "history":
+                OptionMapping moderator = event.getOption("moderator");
+                OptionMapping player = event.getOption("player");
+                if (moderator != null) {
+                    args.add("<@" + moderator.getAsLong() + ">");
+                } else if (player != null) {
+                    args.add(player.getAsString());
+                } else {
+                    break;
+                }
+                addOption(args, event.getOption("page"));
+                break;
+            case "whois":
+                OptionMapping user = event.getOption("user");
+                if (user != null) {
+                    args.add("<@" + user.getAsLong() + ">");
+                } else {
+                    addOption(args, event.getOption("player"));
+                }
+                break;
+            default:
+                break;
+        }
+        return args.toArray(new String[0]);
+    }
+    
+    /**
+     * Append a slash option's string value if it was given
+     */
+    private void addOption(List<String> args, OptionMapping option) {
+        if (option != null) {
+            args.add(option.getAsString());
+        }
     }
     
     /**
      * Handle add subcommand
      */
-    private void handleAdd(MessageReceivedEvent event, String[] args) {
-        if (args.length != 2) {
-            sendInvalidUsage(event);
+    private void handleAdd(CommandContext context, String[] args) {
+        Message.Attachment attachment = findNameListAttachment(context);
+        
+        // add <username...> [duration] [@owner]
+        int end = args.length;
+        long ownerId = 0;
+        Matcher owner = USER_MENTION.matcher(args[end - 1]);
+        if (end > 1 && owner.matches()) {
+            ownerId = Long.parseLong(owner.group(1));
+            end--;
+        }
+        long expiresAt = 0;
+        if (end > 1 && DURATION.matcher(args[end - 1]).matches()) {
+            long duration = parseDuration(args[end - 1]);
+            if (duration == 0) {
+                sendInvalidUsage(context);
+                return;
+            }
+            expiresAt = System.currentTimeMillis() + duration;
+            end--;
+        }
+        if (end < 2 && attachment == null) {
+            sendInvalidUsage(context);
             return;
         }
         
-        String username = args[1];
-        boolean added = whitelistManager.addToWhitelist(username);
+        if (end > 2 || attachment != null) {
+            // Only a single account can be linked to its owner
+            if (ownerId != 0) {
+                sendInvalidUsage(context);
+                return;
+            }
+            handleBulk(context, Arrays.copyOf(args, end), attachment, true, expiresAt);
+            return;
+        }
+        if (ownerId != 0 || expiresAt != 0) {
+            handleAddSingle(context, args[1], ownerId, expiresAt);
+            return;
+        }
         
-        if (added) {
-            whitelistManager.logWhitelistAction("ADD", username, 
-                event.getAuthor().getName(), event.getAuthor().getId());
+        String username = args[1];
+        whitelistManager.addToWhitelist(username).whenComplete((result, error) -> {
+            if (error != null) {
+                sendCommandError(context, "add", error);
+                return;
+            }
             
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("player", username);
-            event.getChannel().sendMessage(messageManager.getMessage("discord.player_added", placeholders)).queue();
-        } else {
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("player", username);
-            event.getChannel().sendMessage(messageManager.getMessage("discord.player_already_whitelisted", placeholders)).queue();
+            switch (result) {
+                case CHANGED:
+                    whitelistManager.logWhitelistAction(AuditAction.ADD, username, 
+                            context.getAuthor().getName(), context.getAuthor().getIdLong());
+                    context.reply(messageManager.getMessage("discord.player_added", "player", username));
+                    break;
+                case UNCHANGED:
+                    context.reply(messageManager.getMessage("discord.player_already_whitelisted", "player", username));
+                    break;
+                case UNKNOWN_PLAYER:
+                    context.reply(messageManager.getMessage("discord.player_not_found", "player", username));
+                    break;
+            }
+        });
+    }
+    
+    /**
+     * Handle {@code add <username> [duration] [@owner]}: add one player, optionally for a limited time
+     * and linked to the Discord user owning the account
+     */
+    private void handleAddSingle(CommandContext context, String username, long ownerId, long expiresAt) {
+        String until = String.valueOf(TimeUnit.MILLISECONDS.toSeconds(expiresAt));
+        whitelistManager.addToWhitelist(username, ownerId, expiresAt).whenComplete((result, error) -> {
+            if (error != null) {
+                sendCommandError(context, "add", error);
+                return;
+            }
+            
+            StringBuilder reply = new StringBuilder();
+            switch (result) {
+                case CHANGED:
+                    whitelistManager.logWhitelistAction(AuditAction.ADD, username,
+                            context.getAuthor().getName(), context.getAuthor().getIdLong());
+                    reply.append(expiresAt != 0
+                            ? messageManager.getMessage("discord.player_added_until", "player", username, "until", until)
+                            : messageManager.getMessage("discord.player_added", "player", username));
+                    break;
+                case UNCHANGED:
+                    if (expiresAt != 0) {
+                        reply.append(messageManager.getMessage("discord.player_expiry_set", "player", username, "until", until));
+                    }
+                    break;
+                case UNKNOWN_PLAYER:
+                    context.reply(messageManager.getMessage("discord.player_not_found", "player", username));
+                    return;
+            }
+            if (ownerId != 0) {
+                if (reply.length() > 0) reply.append('\n');
+                reply.append(messageManager.getMessage("discord.player_linked", "player", username, "user", String.valueOf(ownerId)));
+            }
+            context.reply(reply.toString());
+        });
+    }
+    
+    /**
+     * Parse a duration such as {@code 90m}, {@code 3d} or {@code 1d12h} (units s, m, h, d, w)
+     * @param text Text matching {@link #DURATION}
+     * @return The duration in milliseconds, capped at ten years
+     */
+    private static long parseDuration(String text) {
+        long millis = 0;
+        Matcher part = DURATION_PART.matcher(text);
+        while (part.find()) {
+            long amount = Long.parseLong(part.group(1));
+            switch (Character.toLowerCase(part.group(2).charAt(0))) {
+                case 's':
+                    millis += TimeUnit.SECONDS.toMillis(amount);
+                    break;
+                case 'm':
+                    millis += TimeUnit.MINUTES.toMillis(amount);
+                    break;
+                case 'h':
+                    millis += TimeUnit.HOURS.toMillis(amount);
+                    break;
+                case 'd':
+                    millis += TimeUnit.DAYS.toMillis(amount);
+                    break;
+                default:
+                    millis += TimeUnit.DAYS.toMillis(amount * 7);
+                    break;
+            }
         }
+        return Math.min(millis, MAX_DURATION_MILLIS);
     }
     
     /**
      * Handle remove subcommand
      */
-    private void handleRemove(MessageReceivedEvent event, String[] args) {
+    private void handleRemove(CommandContext context, String[] args) {
+        Message.Attachment attachment = findNameListAttachment(context);
+        if (args.length > 2 || attachment != null) {
+            handleBulk(context, args, attachment, false, 0);
+            return;
+        }
         if (args.length != 2) {
-            sendInvalidUsage(event);
+            sendInvalidUsage(context);
             return;
         }
         
         String username = args[1];
-        boolean removed = whitelistManager.removeFromWhitelist(username);
-        
-        if (removed) {
-            whitelistManager.logWhitelistAction("REMOVE", username, 
-                event.getAuthor().getName(), event.getAuthor().getId());
+        whitelistManager.removeFromWhitelist(username).whenComplete((result, error) -> {
+            if (error != null) {
+                sendCommandError(context, "remove", error);
+                return;
+            }
             
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("player", username);
-            event.getChannel().sendMessage(messageManager.getMessage("discord.player_removed", placeholders)).queue();
-        } else {
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("player", username);
-            event.getChannel().sendMessage(messageManager.getMessage("discord.player_not_whitelisted", placeholders)).queue();
+            switch (result) {
+                case CHANGED:
+                    whitelistManager.logWhitelistAction(AuditAction.REMOVE, username, 
+                            context.getAuthor().getName(), context.getAuthor().getIdLong());
+                    context.reply(messageManager.getMessage("discord.player_removed", "player", username));
+                    break;
+                case UNCHANGED:
+                    context.reply(messageManager.getMessage("discord.player_not_whitelisted", "player", username));
+                    break;
+                case UNKNOWN_PLAYER:
+                    context.reply(messageManager.getMessage("discord.player_not_found", "player", username));
+                    break;
+            }
+        });
+    }
+    
+    /**
+     * Handle add/remove with several names and/or a name list attachment.
+     * The whole batch is applied at once and answered with a single summary reply.
+     * @param expiresAt When added entries end in epoch milliseconds, or 0 to make them permanent
+     */
+    private void handleBulk(CommandContext context, String[] args, Message.Attachment attachment, boolean add, long expiresAt) {
+        String action = add ? "add" : "remove";
+        collectNames(args, attachment).thenCompose(names -> {
+            List<String> valid = new ArrayList<>();
+            int invalid = 0;
+            for (String name : names) {
+                if (USERNAME_PATTERN.matcher(name).matches()) {
+                    valid.add(name);
+                } else {
+                    invalid++;
+                }
+            }
+            
+            int maxNames = plugin.getBulkMaxNames();
+            if (valid.size() > maxNames) {
+                context.reply(messageManager.getMessage("discord.bulk_too_many", "max", String.valueOf(maxNames)));
+                return CompletableFuture.completedFuture(null);
+            }
+            
+            int invalidCount = invalid;
+            CompletableFuture<WhitelistBatchResult> batch = add
+                    ? whitelistManager.addAllToWhitelist(valid, expiresAt)
+                    : whitelistManager.removeAllFromWhitelist(valid);
+            return batch.thenAccept(result -> {
+                whitelistManager.logWhitelistActions(add ? AuditAction.ADD : AuditAction.REMOVE, result.getChanged(),
+                    context.getAuthor().getName(), context.getAuthor().getIdLong());
+                
+                String path = !add ? "discord.bulk_removed" : expiresAt != 0 ? "discord.bulk_added_until" : "discord.bulk_added";
+                context.reply(messageManager.getMessage(path,
+                        "until", String.valueOf(TimeUnit.MILLISECONDS.toSeconds(expiresAt)),
+                        "changed", String.valueOf(result.getChanged().size()),
+                        "unchanged", String.valueOf(result.getUnchanged().size()),
+                        "unknown", String.valueOf(result.getUnknown().size()),
+                        "invalid", String.valueOf(invalidCount)));
+            });
+        }).whenComplete((ignored, error) -> {
+            if (error != null) {
+                sendCommandError(context, action, error);
+            }
+        });
+    }
+    
+    /**
+     * Collect names from the command arguments and, if present, the attached name list
+     */
+    private CompletableFuture<List<String>> collectNames(String[] args, Message.Attachment attachment) {
+        List<String> names = new ArrayList<>(Arrays.asList(args).subList(1, args.length));
+        if (attachment == null) {
+            return CompletableFuture.completedFuture(names);
+        }
+        
+        return attachment.getProxy().download().thenApply(stream -> {
+            readNames(stream, names);
+            return names;
+        });
+    }
+    
+    /**
+     * Stream names out of a text/CSV attachment line by line.
+     * Names may be separated by commas, semicolons or whitespace; lines starting with '#' are skipped.
+     */
+    private void readNames(InputStream stream, List<String> names) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                
+                for (String name : NAME_SEPARATOR.split(line)) {
+                    if (!name.isEmpty()) {
+                        names.add(name);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Find the first attachment that looks like a plain text or CSV name list
+     * @return The attachment, or null if there is none
+     */
+    private Message.Attachment findNameListAttachment(CommandContext context) {
+        for (Message.Attachment attachment : context.getAttachments()) {
+            String extension = attachment.getFileExtension();
+            if (attachment.getSize() <= MAX_ATTACHMENT_BYTES && extension != null
+                    && (extension.equalsIgnoreCase("txt") || extension.equalsIgnoreCase("csv"))) {
+                return attachment;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Handle list subcommand: {@code list [page]}, {@code list all} or {@code list export}
+     */
+    private void handleList(CommandContext context, String[] args) {
+        if (args.length > 2) {
+            sendInvalidUsage(context);
+            return;
+        }
+        
+        List<String> names = whitelistManager.getSortedWhitelistedNames();
+        if (names.isEmpty()) {
+            context.reply(messageManager.getMessage("discord.whitelist_empty"));
+            return;
+        }
+        
+        String mode = args.length == 2 ? args[1].toLowerCase() : "1";
+        switch (mode) {
+            case "all":
+                sendListChunks(context, names);
+                break;
+            case "export":
+                sendListExport(context, names);
+                break;
+            default:
+                int page;
+                try {
+                    page = Integer.parseInt(mode);
+                } catch (NumberFormatException e) {
+                    sendInvalidUsage(context);
+                    return;
+                }
+                sendListPage(context, names, page);
+                break;
+        }
+    }
+    
+    /**
+     * Send one fixed-size page of the sorted whitelist
+     */
+    private void sendListPage(CommandContext context, List<String> names, int page) {
+        int pages = (names.size() + LIST_PAGE_SIZE - 1) / LIST_PAGE_SIZE;
+        page = Math.max(1, Math.min(page, pages));
+        int from = (page - 1) * LIST_PAGE_SIZE;
+        String list = String.join(", ", names.subList(from, Math.min(from + LIST_PAGE_SIZE, names.size())));
+        
+        context.reply(messageManager.getMessage("discord.whitelist_page",
+                "page", String.valueOf(page),
+                "pages", String.valueOf(pages),
+                "total", String.valueOf(names.size()),
+                "list", list));
+    }
+    
+    /**
+     * Send the whole whitelist as consecutive messages, each within Discord's message length limit
+     */
+    private void sendListChunks(CommandContext context, List<String> names) {
+        MessageTemplate template = messageManager.getTemplate("discord.whitelist_list");
+        if (template == null) {
+            sendCommandError(context, "list", new IllegalStateException("Message not found: discord.whitelist_list"));
+            return;
+        }
+        int budget = Message.MAX_CONTENT_LENGTH - template.render("list", "").length();
+        
+        StringBuilder chunk = new StringBuilder(budget);
+        for (String name : names) {
+            if (chunk.length() > 0 && chunk.length() + 2 + name.length() > budget) {
+                context.reply(template.render("list", chunk.toString()));
+                chunk.setLength(0);
+            }
+            if (chunk.length() > 0) chunk.append(", ");
+            chunk.append(name);
+        }
+        context.reply(template.render("list", chunk.toString()));
+    }
+    
+    /**
+     * Send the whole whitelist as a text file attachment, one name per line
+     */
+    private void sendListExport(CommandContext context, List<String> names) {
+        StringBuilder content = new StringBuilder(names.size() * 17);
+        for (String name : names) {
+            content.append(name).append('\n');
         }
+        
+        context.replyWithFile(messageManager.getMessage("discord.whitelist_export", "total", String.valueOf(names.size())),
+                FileUpload.fromData(content.toString().getBytes(StandardCharsets.UTF_8), "whitelist.txt"));
     }
     
     /**
-     * Handle list subcommand
+     * Handle history subcommand: {@code history <player|@moderator> [page]}
      */
-    private void handleList(MessageReceivedEvent event) {
-        String list = String.join(", ", whitelistManager.getWhitelistedPlayers().stream()
-                .map(OfflinePlayer::getName)
-                .filter(Objects::nonNull)
-                .toList());
+    private void handleHistory(CommandContext context, String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            sendInvalidUsage(context);
+            return;
+        }
+        
+        int page = 1;
+        if (args.length == 3) {
+            try {
+                page = Math.max(1, Integer.parseInt(args[2]));
+            } catch (NumberFormatException e) {
+                sendInvalidUsage(context);
+                return;
+            }
+        }
         
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put("list", list.isEmpty() ? "No players whitelisted" : list);
-        event.getChannel().sendMessage(messageManager.getMessage("discord.whitelist_list", placeholders)).queue();
+        int offset = (page - 1) * HISTORY_PAGE_SIZE;
+        Matcher mention = USER_MENTION.matcher(args[1]);
+        AuditPage result;
+        try {
+            result = mention.matches()
+                    ? whitelistManager.getHistoryByModerator(Long.parseLong(mention.group(1)), offset, HISTORY_PAGE_SIZE)
+                    : whitelistManager.getHistoryByPlayer(args[1], offset, HISTORY_PAGE_SIZE);
+        } catch (IOException e) {
+            sendCommandError(context, "history", e);
+            return;
+        }
+        
+        if (result.getEntries().isEmpty()) {
+            context.reply(messageManager.getMessage("discord.history_empty", "target", args[1]));
+            return;
+        }
+        
+        StringBuilder reply = new StringBuilder(messageManager.getMessage("discord.history_header",
+                "target", args[1],
+                "page", String.valueOf(page),
+                "pages", String.valueOf((result.getTotal() + HISTORY_PAGE_SIZE - 1) / HISTORY_PAGE_SIZE),
+                "total", String.valueOf(result.getTotal())));
+        for (AuditEntry entry : result.getEntries()) {
+            reply.append('\n').append(messageManager.getMessage("discord.history_entry",
+                    "time", HISTORY_TIME_FORMAT.format(Instant.ofEpochMilli(entry.getTimestamp()).atZone(ZoneId.systemDefault())),
+                    "action", String.valueOf(entry.getAction()),
+                    "player", entry.getTarget(),
+                    "moderator", entry.getModeratorName(),
+                    "moderator_id", String.valueOf(entry.getModeratorId())));
+        }
+        context.reply(reply.toString());
+    }
+    
+    /**
+     * Handle whois subcommand: {@code whois <player|@user>}
+     */
+    private void handleWhois(CommandContext context, String[] args) {
+        if (args.length != 2) {
+            sendInvalidUsage(context);
+            return;
+        }
+        
+        LinkRegistry links = whitelistManager.getLinkRegistry();
+        Matcher mention = USER_MENTION.matcher(args[1]);
+        if (mention.matches()) {
+            String user = mention.group(1);
+            List<UUID> accounts = links.getAccounts(Long.parseLong(user));
+            if (accounts.isEmpty()) {
+                context.reply(messageManager.getMessage("discord.whois_no_accounts", "user", user));
+                return;
+            }
+            
+            List<String> names = new ArrayList<>(accounts.size());
+            for (UUID account : accounts) {
+                String name = whitelistManager.getWhitelistIndex().getName(account);
+                names.add(name != null ? name : account.toString());
+            }
+            context.reply(messageManager.getMessage("discord.whois_user",
+                    "user", user,
+                    "count", String.valueOf(names.size()),
+                    "players", String.join(", ", names)));
+            return;
+        }
+        
+        UUID account = whitelistManager.getWhitelistIndex().getByName(args[1]);
+        long owner = account != null ? links.getOwner(account) : 0;
+        if (owner == 0) {
+            context.reply(messageManager.getMessage("discord.whois_not_linked", "player", args[1]));
+            return;
+        }
+        context.reply(messageManager.getMessage("discord.whois_player",
+                "player", args[1],
+                "user", String.valueOf(owner),
+                "count", String.valueOf(links.getAccounts(owner).size())));
     }
     
     /**
      * Handle help subcommand
      */
-    private void handleHelp(MessageReceivedEvent event) {
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put("prefix", plugin.getCommandPrefix());
-        event.getChannel().sendMessage(messageManager.getMessage("discord.help_message", placeholders)).queue();
+    private void handleHelp(CommandContext context) {
+        context.reply(messageManager.getMessage("discord.help_message", "prefix", context.getCommandPrefix()));
     }
     
     /**
      * Send invalid usage message
      */
-    private void sendInvalidUsage(MessageReceivedEvent event) {
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put("prefix", plugin.getCommandPrefix());
-        event.getChannel().sendMessage(messageManager.getMessage("discord.invalid_command", placeholders)).queue();
+    private void sendInvalidUsage(CommandContext context) {
+        context.reply(messageManager.getMessage("discord.invalid_command", "prefix", context.getCommandPrefix()));
+    }
+    
+    /**
+     * Report a failed asynchronous whitelist operation
+     */
+    private void sendCommandError(CommandContext context, String action, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        plugin.getMetrics().command(getName()).getErrors().increment();
+        plugin.getLogger().severe("Error executing Discord command 'whitelist " + action + "': " + cause.getMessage());
+        context.reply(messageManager.getMessage("discord.command_error"));
     }
 }
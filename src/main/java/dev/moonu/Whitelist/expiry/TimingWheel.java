@@ -0,0 +1,159 @@
+package dev.moonu.Whitelist.expiry;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical hashed timing wheel: five levels of 64 slots, each level's slot spanning a whole turn of the level
+ * below. Scheduling and cancelling are O(1); an advance by one tick touches one bottom slot, and an entry is moved
+ * down at most once per level on its way to expiry, so pending entries cost nothing while they wait.
+ * Not thread-safe.
+ * @param <T> The scheduled value type
+ */
+public final class TimingWheel<T> {
+    private static final int LEVELS = 5;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+    
+    private final long tickMillis;
+    private final Timeout<T>[] heads;
+    private long base;
+    private int size;
+    
+    /**
+     * A scheduled value
+     */
+    public static final class Timeout<T> {
+        private final T value;
+        private final long deadlineTick;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private boolean scheduled;
+        
+        private Timeout(T value, long deadlineTick) {
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+        
+        public T getValue() {
+            return value;
+        }
+    }
+    
+    /**
+     * @param tickMillis The wheel resolution
+     * @param nowMillis The current time; nothing fires before the next tick after it
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.heads = (Timeout<T>[]) new Timeout<?>[LEVELS * SLOTS];
+        for (int i = 0; i < heads.length; i++) {
+            Timeout<T> head = new Timeout<>(null, 0);
+            head.prev = head;
+            head.next = head;
+            heads[i] = head;
+        }
+        this.base = nowMillis / tickMillis + 1;
+    }
+    
+    /**
+     * Schedule a value. A deadline already past fires on the next advance.
+     * @param value The value handed back when the deadline passes
+     * @param deadlineMillis The deadline, on the clock passed to {@link #advance}
+     * @return A handle for {@link #cancel}
+     */
+    public Timeout<T> schedule(T value, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(value, Math.max(base, ceilDiv(deadlineMillis, tickMillis)));
+        insert(timeout);
+        size++;
+        return timeout;
+    }
+    
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+    
+    /**
+     * Link a timeout into the slot for its deadline, relative to the next tick to run
+     */
+    private void insert(Timeout<T> timeout) {
+        long deadline = Math.min(timeout.deadlineTick, base + MAX_DELTA);
+        long delta = deadline - base;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) (deadline >>> (SLOT_BITS * level)) & SLOT_MASK;
+        
+        Timeout<T> head = heads[level * SLOTS + slot];
+        timeout.prev = head.prev;
+        timeout.next = head;
+        head.prev.next = timeout;
+        head.prev = timeout;
+        timeout.scheduled = true;
+    }
+    
+    private static <T> void unlink(Timeout<T> timeout) {
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.scheduled = false;
+    }
+    
+    /**
+     * Cancel a scheduled value
+     * @return false if it already fired or was cancelled
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (!timeout.scheduled) {
+            return false;
+        }
+        unlink(timeout);
+        size--;
+        return true;
+    }
+    
+    /**
+     * Run every tick up to the current time, handing each value whose deadline passed to the consumer
+     * @param nowMillis The current time
+     * @param expired Receives expired values, in deadline order
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        long now = nowMillis / tickMillis;
+        while (base <= now) {
+            // Entering a new turn of a level: move the upper level's next slot down
+            for (int level = 1; level < LEVELS; level++) {
+                if ((base & ((1L << (SLOT_BITS * level)) - 1)) != 0) break;
+                cascade(level, (int) (base >>> (SLOT_BITS * level)) & SLOT_MASK);
+            }
+            
+            Timeout<T> head = heads[(int) base & SLOT_MASK];
+            while (head.next != head) {
+                Timeout<T> timeout = head.next;
+                unlink(timeout);
+                size--;
+                expired.accept(timeout.value);
+            }
+            base++;
+        }
+    }
+    
+    private void cascade(int level, int slot) {
+        Timeout<T> head = heads[level * SLOTS + slot];
+        while (head.next != head) {
+            Timeout<T> timeout = head.next;
+            unlink(timeout);
+            insert(timeout);
+        }
+    }
+    
+    /**
+     * Get the number of scheduled values
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,249 @@
+package dev.moonu.Whitelist.expiry;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Pending expiries of time-limited whitelist entries, driven by one {@link TimingWheel} with one-second ticks.
+ * Used from the server main thread only. Changes are saved to expiries.dat at most once per
+ * {@link #saveIfDirty} call, on a background thread.
+ */
+public class WhitelistExpiries {
+    private static final int FILE_MAGIC = 0x44455831; // "DEX1"
+    private static final long TICK_MILLIS = 1000;
+    
+    private final File file;
+    private final Consumer<IOException> errorHandler;
+    private final ExecutorService writer;
+    private final TimingWheel<Expiry> wheel = new TimingWheel<>(TICK_MILLIS, System.currentTimeMillis());
+    private final Map<UUID, TimingWheel.Timeout<Expiry>> pending = new HashMap<>();
+    private volatile int size;
+    private boolean dirty;
+    
+    /**
+     * @param file The file expiries are saved to
+     * @param errorHandler Receives save failures, on the writer thread
+     */
+    public WhitelistExpiries(File file, Consumer<IOException> errorHandler) {
+        this.file = file;
+        this.errorHandler = errorHandler;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "DiscordWhitelist-Expiries");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * When a player's whitelist entry ends
+     */
+    public static final class Expiry {
+        private final UUID uniqueId;
+        private final String name;
+        private final long expiresAt;
+        
+        private Expiry(UUID uniqueId, String name, long expiresAt) {
+            this.uniqueId = uniqueId;
+            this.name = name;
+            this.expiresAt = expiresAt;
+        }
+        
+        public UUID getUniqueId() {
+            return uniqueId;
+        }
+        
+        /**
+         * Get the player's name when the expiry was set, or null if unknown
+         */
+        public String getName() {
+            return name;
+        }
+        
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+    
+    /**
+     * Load saved expiries. Entries that fell due while the server was down expire on the first {@link #poll}.
+     * @throws IOException If the file cannot be read
+     */
+    public void load() throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException(file.getName() + " is not an expiry file");
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                UUID uniqueId = new UUID(in.readLong(), in.readLong());
+                long expiresAt = in.readLong();
+                String name = in.readBoolean() ? in.readUTF() : null;
+                put(new Expiry(uniqueId, name, expiresAt));
+            }
+        }
+        dirty = false;
+    }
+    
+    /**
+     * Set when a player's entry ends, replacing any earlier expiry
+     * @param uniqueId The player's UUID
+     * @param name The player's name, or null if unknown
+     * @param expiresAt The end time in epoch milliseconds
+     */
+    public void schedule(UUID uniqueId, String name, long expiresAt) {
+        put(new Expiry(uniqueId, name, expiresAt));
+    }
+    
+    private void put(Expiry expiry) {
+        TimingWheel.Timeout<Expiry> previous = pending.put(expiry.uniqueId, wheel.schedule(expiry, expiry.expiresAt));
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+        size = pending.size();
+        dirty = true;
+    }
+    
+    /**
+     * Drop a player's expiry, e.g. because the entry was removed by hand
+     * @return true if the player had one
+     */
+    public boolean cancel(UUID uniqueId) {
+        TimingWheel.Timeout<Expiry> timeout = pending.remove(uniqueId);
+        if (timeout == null) {
+            return false;
+        }
+        wheel.cancel(timeout);
+        size = pending.size();
+        dirty = true;
+        return true;
+    }
+    
+    /**
+     * Get when a player's entry ends
+     * @return The end time in epoch milliseconds, or 0 if the entry does not expire
+     */
+    public long getExpiresAt(UUID uniqueId) {
+        TimingWheel.Timeout<Expiry> timeout = pending.get(uniqueId);
+        return timeout == null ? 0 : timeout.getValue().expiresAt;
+    }
+    
+    /**
+     * Advance the wheel and take every expiry that fell due
+     * @param nowMillis The current time
+     * @return The due expiries, oldest first
+     */
+    public List<Expiry> poll(long nowMillis) {
+        List<Expiry> due = new ArrayList<>();
+        wheel.advance(nowMillis, expiry -> {
+            pending.remove(expiry.uniqueId);
+            due.add(expiry);
+        });
+        if (!due.isEmpty()) {
+            size = pending.size();
+            dirty = true;
+        }
+        return due;
+    }
+    
+    /**
+     * Save on the writer thread if anything changed since the last save
+     */
+    public void saveIfDirty() {
+        if (!dirty) return;
+        dirty = false;
+        List<Expiry> snapshot = snapshot();
+        writer.execute(() -> {
+            try {
+                save(snapshot);
+            } catch (IOException e) {
+                errorHandler.accept(e);
+            }
+        });
+    }
+    
+    private List<Expiry> snapshot() {
+        List<Expiry> snapshot = new ArrayList<>(pending.size());
+        for (TimingWheel.Timeout<Expiry> timeout : pending.values()) {
+            snapshot.add(timeout.getValue());
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Write the expiries, replacing the file atomically
+     */
+    private void save(List<Expiry> expiries) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(expiries.size());
+            for (Expiry expiry : expiries) {
+                out.writeLong(expiry.uniqueId.getMostSignificantBits());
+                out.writeLong(expiry.uniqueId.getLeastSignificantBits());
+                out.writeLong(expiry.expiresAt);
+                out.writeBoolean(expiry.name != null);
+                if (expiry.name != null) {
+                    out.writeUTF(expiry.name);
+                }
+            }
+            out.flush();
+            stream.getFD().sync();
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Get the number of pending expiries. Safe on any thread.
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Finish queued saves and write any unsaved change
+     */
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (dirty) {
+            try {
+                save(snapshot());
+                dirty = false;
+            } catch (IOException e) {
+                errorHandler.accept(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,431 @@
+package dev.moonu.Whitelist.link;
+
+import dev.moonu.Whitelist.WhitelistListener;
+import dev.moonu.Whitelist.util.LongObjectHashMap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Links between Discord users and the Minecraft accounts they own.
+ * Both directions are open-addressing tables on primitive keys: UUID to Discord ID (one owner per account)
+ * and Discord ID to accounts (a user may own several). Changes are appended to links.dat on a background
+ * thread; the log is rewritten from the live links once it holds more dead records than live ones.
+ * A link is dropped when its account leaves the whitelist.
+ */
+public class LinkRegistry implements WhitelistListener {
+    private static final int LOG_MAGIC = 0x444C4B31; // "DLK1"
+    private static final byte LINK = 1;
+    private static final byte UNLINK = 2;
+    private static final int MIN_COMPACT_RECORDS = 1024;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final UUID[] NO_ACCOUNTS = new UUID[0];
+    
+    private final File logFile;
+    private final Consumer<IOException> errorHandler;
+    private final ExecutorService writer;
+    private final LongObjectHashMap<UUID[]> accounts = new LongObjectHashMap<>();
+    private long[] keys;
+    private long[] owners;
+    private int size;
+    
+    // Only touched on the writer thread once loaded
+    private DataOutputStream log;
+    private long records;
+    private boolean unreadable;
+    private boolean closed;
+    
+    /**
+     * @param logFile The link log
+     * @param errorHandler Receives write failures, on the writer thread
+     */
+    public LinkRegistry(File logFile, Consumer<IOException> errorHandler) {
+        this.logFile = logFile;
+        this.errorHandler = errorHandler;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "DiscordWhitelist-Links");
+            thread.setDaemon(true);
+            return thread;
+        });
+        allocate(INITIAL_CAPACITY);
+    }
+    
+    private void allocate(int capacity) {
+        keys = new long[capacity * 2];
+        owners = new long[capacity];
+    }
+    
+    private static int hash(long most, long least) {
+        long h = (most ^ least) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+    
+    /**
+     * Find the slot holding the UUID, or the empty slot where it would go. Owner 0 marks an empty slot.
+     */
+    private int findSlot(long most, long least) {
+        int mask = owners.length - 1;
+        int slot = hash(most, least) & mask;
+        while (owners[slot] != 0 && (keys[slot * 2] != most || keys[slot * 2 + 1] != least)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+    
+    /**
+     * Replay the link log and open it for appending. A torn record at the end, left by a crash, is discarded.
+     * A damaged log is moved aside and a fresh one is started from the links read before the damage.
+     * @throws IOException If the log cannot be read or opened
+     */
+    public void load() throws IOException {
+        boolean torn = false;
+        if (logFile.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)))) {
+                if (in.readInt() != LOG_MAGIC) {
+                    throw new IOException(logFile.getName() + " is not a link log");
+                }
+                while (true) {
+                    int op = in.read();
+                    if (op < 0) break;
+                    long discordId = in.readLong();
+                    UUID uniqueId = new UUID(in.readLong(), in.readLong());
+                    synchronized (this) {
+                        if (op == LINK) {
+                            put(uniqueId, discordId);
+                        } else if (op == UNLINK) {
+                            delete(uniqueId);
+                        } else {
+                            throw new IOException(logFile.getName() + " has an unknown record type " + op + " after " + records + " records");
+                        }
+                    }
+                    records++;
+                }
+            } catch (EOFException e) {
+                torn = true;
+            } catch (IOException e) {
+                moveAside(e);
+            }
+        }
+        
+        if (torn || !logFile.exists()) {
+            compact();
+        } else {
+            log = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile, true)));
+        }
+    }
+    
+    /**
+     * Keep a damaged log for inspection and start a fresh one from the links replayed so far.
+     * If it cannot be moved, it is left alone and no further changes are written.
+     * @throws IOException Always, describing the damage
+     */
+    private void moveAside(IOException cause) throws IOException {
+        File damaged = new File(logFile.getPath() + ".damaged-" + System.currentTimeMillis());
+        try {
+            Files.move(logFile.toPath(), damaged.toPath());
+        } catch (IOException e) {
+            unreadable = true;
+            cause.addSuppressed(e);
+            throw cause;
+        }
+        compact();
+        throw new IOException(cause.getMessage() + "; moved it to " + damaged.getName()
+                + " and kept the " + size() + " links read before the damage", cause);
+    }
+    
+    /**
+     * Get the Discord user owning an account
+     * @param uniqueId The account's UUID
+     * @return The Discord user ID, or 0 if the account is not linked
+     */
+    public synchronized long getOwner(UUID uniqueId) {
+        return owners[findSlot(uniqueId.getMostSignificantBits(), uniqueId.getLeastSignificantBits())];
+    }
+    
+    /**
+     * Get the accounts a Discord user owns
+     * @param discordId The Discord user ID
+     * @return The accounts, in the order they were linked
+     */
+    public synchronized List<UUID> getAccounts(long discordId) {
+        UUID[] owned = accounts.get(discordId);
+        return owned == null ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(owned));
+    }
+    
+    /**
+     * Link an account to a Discord user, replacing any previous owner
+     * @param uniqueId The account's UUID
+     * @param discordId The Discord user ID, not 0
+     */
+    public void link(UUID uniqueId, long discordId) {
+        if (discordId == 0) {
+            throw new IllegalArgumentException("discordId");
+        }
+        synchronized (this) {
+            if (!put(uniqueId, discordId)) return;
+        }
+        append(LINK, discordId, uniqueId);
+    }
+    
+    /**
+     * Remove an account's link
+     * @param uniqueId The account's UUID
+     * @return true if the account was linked
+     */
+    public boolean unlink(UUID uniqueId) {
+        long owner;
+        synchronized (this) {
+            owner = delete(uniqueId);
+        }
+        if (owner == 0) {
+            return false;
+        }
+        append(UNLINK, owner, uniqueId);
+        return true;
+    }
+    
+    @Override
+    public void onWhitelistChanged(UUID uniqueId, String name, boolean whitelisted) {
+        if (!whitelisted) {
+            unlink(uniqueId);
+        }
+    }
+    
+    /**
+     * Set an account's owner in both tables
+     * @return false if it was already linked to that owner
+     */
+    private boolean put(UUID uniqueId, long discordId) {
+        long most = uniqueId.getMostSignificantBits();
+        long least = uniqueId.getLeastSignificantBits();
+        int slot = findSlot(most, least);
+        long previous = owners[slot];
+        if (previous == discordId) {
+            return false;
+        }
+        if (previous != 0) {
+            removeAccount(previous, uniqueId);
+        } else {
+            if ((size + 1) * 2 > owners.length) {
+                rehash(owners.length * 2);
+                slot = findSlot(most, least);
+            }
+            keys[slot * 2] = most;
+            keys[slot * 2 + 1] = least;
+            size++;
+        }
+        owners[slot] = discordId;
+        
+        UUID[] owned = accounts.get(discordId);
+        if (owned == null) {
+            accounts.put(discordId, new UUID[]{uniqueId});
+        } else {
+            UUID[] grown = Arrays.copyOf(owned, owned.length + 1);
+            grown[owned.length] = uniqueId;
+            accounts.put(discordId, grown);
+        }
+        return true;
+    }
+    
+    /**
+     * Remove an account from both tables
+     * @return The previous owner, or 0 if it was not linked
+     */
+    private long delete(UUID uniqueId) {
+        int hole = findSlot(uniqueId.getMostSignificantBits(), uniqueId.getLeastSignificantBits());
+        long owner = owners[hole];
+        if (owner == 0) {
+            return 0;
+        }
+        removeAccount(owner, uniqueId);
+        
+        // Linear-probing deletion: shift later entries of the probe run back into the hole
+        int mask = owners.length - 1;
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (owners[slot] == 0) {
+                break;
+            }
+            int home = hash(keys[slot * 2], keys[slot * 2 + 1]) & mask;
+            boolean movable = hole <= slot ? (home <= hole || home > slot) : (home <= hole && home > slot);
+            if (movable) {
+                keys[hole * 2] = keys[slot * 2];
+                keys[hole * 2 + 1] = keys[slot * 2 + 1];
+                owners[hole] = owners[slot];
+                hole = slot;
+            }
+        }
+        owners[hole] = 0;
+        keys[hole * 2] = 0;
+        keys[hole * 2 + 1] = 0;
+        size--;
+        return owner;
+    }
+    
+    private void removeAccount(long discordId, UUID uniqueId) {
+        UUID[] owned = accounts.get(discordId);
+        if (owned == null) return;
+        if (owned.length == 1) {
+            accounts.remove(discordId);
+            return;
+        }
+        UUID[] shrunk = new UUID[owned.length - 1];
+        int next = 0;
+        for (UUID account : owned) {
+            if (!account.equals(uniqueId) && next < shrunk.length) {
+                shrunk[next++] = account;
+            }
+        }
+        accounts.put(discordId, shrunk);
+    }
+    
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldOwners = owners;
+        allocate(capacity);
+        for (int i = 0; i < oldOwners.length; i++) {
+            if (oldOwners[i] != 0) {
+                int slot = findSlot(oldKeys[i * 2], oldKeys[i * 2 + 1]);
+                keys[slot * 2] = oldKeys[i * 2];
+                keys[slot * 2 + 1] = oldKeys[i * 2 + 1];
+                owners[slot] = oldOwners[i];
+            }
+        }
+    }
+    
+    /**
+     * Queue a log record. Records are applied in memory first, so a record may reach the log after a
+     * compaction that already captured its effect; replaying it again is harmless.
+     * If the log is not open, e.g. after a failed compaction, it is rewritten from memory first.
+     */
+    private void append(byte op, long discordId, UUID uniqueId) {
+        if (writer.isShutdown()) return;
+        writer.execute(() -> {
+            try {
+                if (log == null) {
+                    if (closed) {
+                        throw new IOException(logFile.getName() + " is already closed");
+                    }
+                    if (unreadable) {
+                        throw new IOException(logFile.getName() + " could not be read or moved at startup and is left untouched");
+                    }
+                    compact();
+                }
+                log.writeByte(op);
+                log.writeLong(discordId);
+                log.writeLong(uniqueId.getMostSignificantBits());
+                log.writeLong(uniqueId.getLeastSignificantBits());
+                log.flush();
+                records++;
+                
+                int live;
+                synchronized (this) {
+                    live = size;
+                }
+                if (records > MIN_COMPACT_RECORDS && records > live * 2L) {
+                    compact();
+                }
+            } catch (IOException e) {
+                errorHandler.accept(e);
+            }
+        });
+    }
+    
+    /**
+     * Rewrite the log with one record per live link, replacing it atomically
+     */
+    private void compact() throws IOException {
+        List<long[]> live = new ArrayList<>();
+        synchronized (this) {
+            for (int slot = 0; slot < owners.length; slot++) {
+                if (owners[slot] != 0) {
+                    live.add(new long[]{owners[slot], keys[slot * 2], keys[slot * 2 + 1]});
+                }
+            }
+        }
+        
+        if (log != null) {
+            log.close();
+            log = null;
+        }
+        File parent = logFile.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+        File temp = new File(logFile.getPath() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(LOG_MAGIC);
+            for (long[] link : live) {
+                out.writeByte(LINK);
+                out.writeLong(link[0]);
+                out.writeLong(link[1]);
+                out.writeLong(link[2]);
+            }
+            out.flush();
+            stream.getFD().sync();
+        }
+        Files.move(temp.toPath(), logFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        records = live.size();
+        log = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile, true)));
+    }
+    
+    /**
+     * Get the number of linked accounts
+     */
+    public synchronized int size() {
+        return size;
+    }
+    
+    /**
+     * Get the number of Discord users with at least one linked account
+     */
+    public synchronized int getOwnerCount() {
+        return accounts.size();
+    }
+    
+    /**
+     * Write pending records and close the log
+     */
+    public void close() {
+        writer.execute(() -> {
+            try {
+                closed = true;
+                if (log != null) {
+                    log.close();
+                    log = null;
+                }
+            } catch (IOException e) {
+                errorHandler.accept(e);
+            }
+        });
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
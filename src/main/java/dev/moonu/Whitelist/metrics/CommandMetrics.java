@@ -0,0 +1,66 @@
+package dev.moonu.Whitelist.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instruments for one Discord command
+ */
+public class CommandMetrics {
+    private final LatencyHistogram parseLatency;
+    private final LatencyHistogram executeLatency;
+    private final LongAdder succeeded;
+    private final LongAdder failed;
+    private final LongAdder rateLimited;
+    private final LongAdder denied;
+    private final LongAdder rejected;
+    private final LongAdder errors;
+    
+    CommandMetrics(MetricsRegistry registry, String command) {
+        String labels = MetricsRegistry.labels("command", command);
+        this.parseLatency = registry.histogram("discordwhitelist_command_parse_seconds",
+                "Time from receiving a Discord event to handing the command to the executor", labels);
+        this.executeLatency = registry.histogram("discordwhitelist_command_execute_seconds",
+                "Time spent running a Discord command on the executor", labels);
+        String name = "discordwhitelist_commands_total";
+        String help = "Discord command invocations by outcome";
+        this.succeeded = registry.counter(name, help, MetricsRegistry.labels("command", command, "result", "success"));
+        this.failed = registry.counter(name, help, MetricsRegistry.labels("command", command, "result", "failure"));
+        this.rateLimited = registry.counter(name, help, MetricsRegistry.labels("command", command, "result", "rate_limited"));
+        this.denied = registry.counter(name, help, MetricsRegistry.labels("command", command, "result", "denied"));
+        this.rejected = registry.counter(name, help, MetricsRegistry.labels("command", command, "result", "busy"));
+        this.errors = registry.counter("discordwhitelist_command_errors_total",
+                "Errors reported by a command's background work after the command itself returned", labels);
+    }
+    
+    public LatencyHistogram getParseLatency() {
+        return parseLatency;
+    }
+    
+    public LatencyHistogram getExecuteLatency() {
+        return executeLatency;
+    }
+    
+    public LongAdder getSucceeded() {
+        return succeeded;
+    }
+    
+    public LongAdder getFailed() {
+        return failed;
+    }
+    
+    public LongAdder getRateLimited() {
+        return rateLimited;
+    }
+    
+    public LongAdder getDenied() {
+        return denied;
+    }
+    
+    public LongAdder getRejected() {
+        return rejected;
+    }
+    
+    public LongAdder getErrors() {
+        return errors;
+    }
+}
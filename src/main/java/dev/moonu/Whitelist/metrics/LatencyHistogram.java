@@ -0,0 +1,91 @@
+package dev.moonu.Whitelist.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two nanosecond buckets.
+ * Bucket {@code i} counts samples below {@code 2^i} ns, so recording is a leading-zero count and one atomic
+ * increment, and percentiles are accurate to within a factor of two, which is plenty to spot a regression.
+ */
+public final class LatencyHistogram {
+    static final int BUCKETS = 64;
+    
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    
+    /**
+     * Record one sample
+     * @param nanos The measured duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(bucket(nanos));
+        count.increment();
+        sumNanos.add(nanos);
+    }
+    
+    /**
+     * Record the time elapsed since a {@link System#nanoTime()} reading
+     * @param startNanos The start time
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+    
+    private static int bucket(long nanos) {
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+    
+    /**
+     * Get the upper bound of the bucket holding a quantile
+     * @param quantile The quantile, between 0 and 1
+     * @return The latency in nanoseconds, 0 if nothing was recorded
+     */
+    public long percentile(double quantile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+    
+    /**
+     * Get the exclusive upper bound of a bucket in nanoseconds
+     */
+    static long upperBound(int bucket) {
+        return bucket >= 63 ? Long.MAX_VALUE : 1L << bucket;
+    }
+    
+    /**
+     * Get the number of samples in a bucket
+     */
+    long bucketCount(int bucket) {
+        return buckets.get(bucket);
+    }
+    
+    public long getCount() {
+        return count.sum();
+    }
+    
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+}
@@ -0,0 +1,150 @@
+package dev.moonu.Whitelist.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Named counters, gauges and latency histograms, rendered in the Prometheus text format.
+ * Instruments are created once and held by the code that updates them, so the hot path never looks anything up here.
+ */
+public class MetricsRegistry {
+    private static final int FIRST_EXPORTED_BUCKET = 10;  // ~1 us
+    private static final int LAST_EXPORTED_BUCKET = 36;   // ~69 s
+    
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+    
+    /**
+     * All series of one metric name
+     */
+    private static final class Family {
+        private final String type;
+        private final String help;
+        private final Map<String, Object> series = new ConcurrentSkipListMap<>();
+        
+        private Family(String type, String help) {
+            this.type = type;
+            this.help = help;
+        }
+    }
+    
+    /**
+     * Build a label set, e.g. {@code labels("command", "whitelist")} gives {@code command="whitelist"}
+     * @param keyValues Alternating label names and values
+     * @return The label set
+     */
+    public static String labels(String... keyValues) {
+        StringBuilder labels = new StringBuilder();
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            if (labels.length() > 0) labels.append(',');
+            labels.append(keyValues[i]).append("=\"")
+                    .append(keyValues[i + 1].replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        return labels.toString();
+    }
+    
+    /**
+     * Get or create a counter
+     * @param name The metric name
+     * @param help The metric description
+     * @param labels The label set, empty for none
+     * @return The counter
+     */
+    public LongAdder counter(String name, String help, String labels) {
+        return (LongAdder) family(name, "counter", help).series.computeIfAbsent(labels, key -> new LongAdder());
+    }
+    
+    /**
+     * Get or create a latency histogram
+     * @param name The metric name, exported in seconds
+     * @param help The metric description
+     * @param labels The label set, empty for none
+     * @return The histogram
+     */
+    public LatencyHistogram histogram(String name, String help, String labels) {
+        return (LatencyHistogram) family(name, "histogram", help).series.computeIfAbsent(labels, key -> new LatencyHistogram());
+    }
+    
+    /**
+     * Register a counter whose value is kept elsewhere, read when the metrics are rendered
+     * @param name The metric name
+     * @param help The metric description
+     * @param labels The label set, empty for none
+     * @param value Supplies the current total
+     */
+    public void counter(String name, String help, String labels, LongSupplier value) {
+        family(name, "counter", help).series.put(labels, value);
+    }
+    
+    /**
+     * Register a gauge read when the metrics are rendered, replacing any earlier one with the same name and labels
+     * @param name The metric name
+     * @param help The metric description
+     * @param labels The label set, empty for none
+     * @param value Supplies the current value
+     */
+    public void gauge(String name, String help, String labels, LongSupplier value) {
+        family(name, "gauge", help).series.put(labels, value);
+    }
+    
+    private Family family(String name, String type, String help) {
+        Family family = families.computeIfAbsent(name, key -> new Family(type, help));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type);
+        }
+        return family;
+    }
+    
+    /**
+     * Render every metric in the Prometheus text exposition format
+     * @param out The builder to append to
+     */
+    public void writePrometheus(StringBuilder out) {
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            out.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+            
+            for (Map.Entry<String, Object> series : family.series.entrySet()) {
+                String labels = series.getKey();
+                Object value = series.getValue();
+                if (value instanceof LongAdder) {
+                    sample(out, name, labels, ((LongAdder) value).sum());
+                } else if (value instanceof LongSupplier) {
+                    sample(out, name, labels, ((LongSupplier) value).getAsLong());
+                } else {
+                    writeHistogram(out, name, labels, (LatencyHistogram) value);
+                }
+            }
+        }
+    }
+    
+    private static void writeHistogram(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < FIRST_EXPORTED_BUCKET; i++) {
+            cumulative += histogram.bucketCount(i);
+        }
+        for (int i = FIRST_EXPORTED_BUCKET; i <= LAST_EXPORTED_BUCKET; i++) {
+            cumulative += histogram.bucketCount(i);
+            out.append(name).append("_bucket{").append(prefix).append("le=\"")
+                    .append(LatencyHistogram.upperBound(i) / 1e9).append("\"} ").append(cumulative).append('\n');
+        }
+        for (int i = LAST_EXPORTED_BUCKET + 1; i < LatencyHistogram.BUCKETS; i++) {
+            cumulative += histogram.bucketCount(i);
+        }
+        out.append(name).append("_bucket{").append(prefix).append("le=\"+Inf\"} ").append(cumulative).append('\n');
+        out.append(name).append("_sum");
+        if (!labels.isEmpty()) out.append('{').append(labels).append('}');
+        out.append(' ').append(histogram.getSumNanos() / 1e9).append('\n');
+        sample(out, name + "_count", labels, cumulative);
+    }
+    
+    private static void sample(StringBuilder out, String name, String labels, long value) {
+        out.append(name);
+        if (!labels.isEmpty()) out.append('{').append(labels).append('}');
+        out.append(' ').append(value).append('\n');
+    }
+}
@@ -0,0 +1,65 @@
+package dev.moonu.Whitelist.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The plugin's instruments: per-command latency and outcome counters, whitelist operation stages,
+ * reply latency and the queue depths registered by the components that own the queues
+ */
+public class PluginMetrics {
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final Map<String, CommandMetrics> commands = new ConcurrentHashMap<>();
+    private final LatencyHistogram nameResolution;
+    private final LatencyHistogram mainThreadWait;
+    private final LatencyHistogram mainThreadApply;
+    private final LatencyHistogram replySend;
+    
+    public PluginMetrics() {
+        this.nameResolution = registry.histogram("discordwhitelist_name_resolution_seconds",
+                "Time to resolve a player name to a profile, cache hits included", "");
+        this.mainThreadWait = registry.histogram("discordwhitelist_main_thread_wait_seconds",
+                "Time a whitelist change waited for the server main thread", "");
+        this.mainThreadApply = registry.histogram("discordwhitelist_main_thread_apply_seconds",
+                "Time a whitelist change spent on the server main thread", "");
+        this.replySend = registry.histogram("discordwhitelist_reply_seconds",
+                "Time from sending a Discord reply to Discord acknowledging it", "");
+    }
+    
+    /**
+     * Get the instruments of a command, creating them on first use
+     * @param command The command name
+     * @return The command's instruments
+     */
+    public CommandMetrics command(String command) {
+        return commands.computeIfAbsent(command, name -> new CommandMetrics(registry, name));
+    }
+    
+    /**
+     * Get the instruments of every command seen so far
+     */
+    public Map<String, CommandMetrics> getCommands() {
+        return Collections.unmodifiableMap(commands);
+    }
+    
+    public LatencyHistogram getNameResolution() {
+        return nameResolution;
+    }
+    
+    public LatencyHistogram getMainThreadWait() {
+        return mainThreadWait;
+    }
+    
+    public LatencyHistogram getMainThreadApply() {
+        return mainThreadApply;
+    }
+    
+    public LatencyHistogram getReplySend() {
+        return replySend;
+    }
+    
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+}
@@ -0,0 +1,40 @@
+package dev.moonu.Whitelist.storage;
+
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stores entries in the server's own whitelist.json, which the server rewrites in full on every change
+ */
+public class BukkitWhitelistStorage implements WhitelistStorage {
+    @Override
+    public void open() {
+    }
+    
+    @Override
+    public Map<UUID, String> getEntries() {
+        Map<UUID, String> entries = new HashMap<>();
+        for (OfflinePlayer player : Bukkit.getWhitelistedPlayers()) {
+            entries.put(player.getUniqueId(), player.getName());
+        }
+        return entries;
+    }
+    
+    @Override
+    public boolean isWhitelisted(OfflinePlayer player) {
+        return player.isWhitelisted();
+    }
+    
+    @Override
+    public void setWhitelisted(OfflinePlayer player, String name, boolean whitelisted) {
+        player.setWhitelisted(whitelisted);
+    }
+    
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,34 @@
+package dev.moonu.Whitelist.storage;
+
+import dev.moonu.Whitelist.MessageManager;
+import dev.moonu.Whitelist.WhitelistManager;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+
+/**
+ * Refuses players missing from the plugin's whitelist, used instead of the server whitelist.
+ * Runs on the async login thread and only reads {@link WhitelistManager#checkLogin}, which is lock-free,
+ * so a join storm never waits on the main thread or on disk.
+ */
+public class PreLoginWhitelistListener implements Listener {
+    private final WhitelistManager whitelistManager;
+    private final MessageManager messageManager;
+    
+    public PreLoginWhitelistListener(WhitelistManager whitelistManager, MessageManager messageManager) {
+        this.whitelistManager = whitelistManager;
+        this.messageManager = messageManager;
+    }
+    
+    @EventHandler(priority = EventPriority.LOW)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+        if (whitelistManager.checkLogin(event.getUniqueId())) return;
+        // Operators bypass the whitelist, as with the server's own check
+        if (Bukkit.getOfflinePlayer(event.getUniqueId()).isOp()) return;
+        
+        event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_WHITELIST, messageManager.getMessage("game.not_whitelisted_kick"));
+    }
+}
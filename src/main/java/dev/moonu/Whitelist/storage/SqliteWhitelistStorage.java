@@ -0,0 +1,298 @@
+package dev.moonu.Whitelist.storage;
+
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Stores entries in an SQLite database, keyed by UUID with an index on the lowercase name.
+ * Entries are held in memory for reads; changes are queued and a writer thread commits everything pending
+ * in one transaction, so the cost of a change does not grow with the whitelist.
+ * Uses the SQLite JDBC driver the server ships with. The server's whitelist is imported once, when the
+ * database is created; the schema's user_version records that so an emptied whitelist stays empty.
+ */
+public class SqliteWhitelistStorage implements WhitelistStorage {
+    private static final long POLL_TIMEOUT_MILLIS = 250;
+    private static final long CLOSE_TIMEOUT_MILLIS = 10000;
+    private static final int MAX_WRITE_ATTEMPTS = 5;
+    private static final long RETRY_DELAY_MILLIS = 500;
+    private static final String NO_NAME = "";
+    private static final int SCHEMA_IMPORTED = 1;
+    
+    private final File databaseFile;
+    private final boolean mirrorBukkit;
+    private final int maxBatch;
+    private final Consumer<SQLException> errorHandler;
+    private final Map<UUID, String> entries = new ConcurrentHashMap<>();
+    private final BlockingQueue<Change> queue = new LinkedBlockingQueue<>();
+    private Connection connection;
+    private Thread thread;
+    private volatile boolean running;
+    
+    /**
+     * @param databaseFile The database file
+     * @param mirrorBukkit Also apply every change to the server's whitelist, which the server saves in full
+     *                     on each change; needed while the server enforces its own whitelist
+     * @param maxBatch The most changes committed in one transaction
+     * @param errorHandler Receives the failure of a batch that could not be written after retrying, on the writer thread
+     */
+    public SqliteWhitelistStorage(File databaseFile, boolean mirrorBukkit, int maxBatch, Consumer<SQLException> errorHandler) {
+        this.databaseFile = databaseFile;
+        this.mirrorBukkit = mirrorBukkit;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.errorHandler = errorHandler;
+    }
+    
+    /**
+     * A queued change
+     */
+    private static final class Change {
+        private final UUID uniqueId;
+        private final String name;
+        private final boolean whitelisted;
+        private final long time;
+        
+        private Change(UUID uniqueId, String name, boolean whitelisted, long time) {
+            this.uniqueId = uniqueId;
+            this.name = name;
+            this.whitelisted = whitelisted;
+            this.time = time;
+        }
+    }
+    
+    @Override
+    public void open() throws IOException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+            connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+            int version;
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=NORMAL");
+                statement.execute("CREATE TABLE IF NOT EXISTS whitelist ("
+                        + "uuid BLOB PRIMARY KEY, name TEXT, name_lower TEXT, added_at INTEGER NOT NULL) WITHOUT ROWID");
+                statement.execute("CREATE INDEX IF NOT EXISTS whitelist_name_lower ON whitelist (name_lower)");
+                try (ResultSet result = statement.executeQuery("PRAGMA user_version")) {
+                    version = result.next() ? result.getInt(1) : 0;
+                }
+            }
+            connection.setAutoCommit(false);
+            
+            load();
+            if (version < SCHEMA_IMPORTED) {
+                // Databases from before the flag existed already hold their entries
+                if (entries.isEmpty()) {
+                    importBukkitWhitelist();
+                }
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("PRAGMA user_version = " + SCHEMA_IMPORTED);
+                }
+                connection.commit();
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IOException("The server does not provide the SQLite JDBC driver", e);
+        } catch (SQLException e) {
+            closeConnection();
+            throw new IOException("Could not open " + databaseFile.getName() + ": " + e.getMessage(), e);
+        }
+        
+        running = true;
+        thread = new Thread(this::run, "DiscordWhitelist-Storage");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private void load() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT uuid, name FROM whitelist")) {
+            while (rows.next()) {
+                String name = rows.getString(2);
+                entries.put(toUuid(rows.getBytes(1)), name != null ? name : NO_NAME);
+            }
+        }
+        connection.commit();
+    }
+    
+    /**
+     * Copy the server's whitelist into a new database
+     */
+    private void importBukkitWhitelist() throws SQLException {
+        List<Change> changes = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (OfflinePlayer player : Bukkit.getWhitelistedPlayers()) {
+            String name = player.getName();
+            entries.put(player.getUniqueId(), name != null ? name : NO_NAME);
+            changes.add(new Change(player.getUniqueId(), name, true, now));
+        }
+        if (!changes.isEmpty()) {
+            write(changes);
+        }
+    }
+    
+    @Override
+    public Map<UUID, String> getEntries() {
+        Map<UUID, String> copy = new HashMap<>(entries.size() * 2);
+        for (Map.Entry<UUID, String> entry : entries.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().isEmpty() ? null : entry.getValue());
+        }
+        return copy;
+    }
+    
+    @Override
+    public boolean isWhitelisted(OfflinePlayer player) {
+        return entries.containsKey(player.getUniqueId());
+    }
+    
+    @Override
+    public void setWhitelisted(OfflinePlayer player, String name, boolean whitelisted) {
+        if (whitelisted) {
+            entries.put(player.getUniqueId(), name != null ? name : NO_NAME);
+        } else {
+            entries.remove(player.getUniqueId());
+        }
+        if (mirrorBukkit) {
+            player.setWhitelisted(whitelisted);
+        }
+        queue.add(new Change(player.getUniqueId(), name, whitelisted, System.currentTimeMillis()));
+    }
+    
+    private void run() {
+        List<Change> batch = new ArrayList<>(maxBatch);
+        int attempts = 0;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    Change first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    batch.add(first);
+                }
+                queue.drainTo(batch, Math.max(0, maxBatch - batch.size()));
+                write(batch);
+                batch.clear();
+                attempts = 0;
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (SQLException e) {
+                // Keep a failed batch, e.g. on a busy lock, so the database does not fall behind the entries in memory;
+                // later changes are merged in and win when it is written
+                if (++attempts >= MAX_WRITE_ATTEMPTS || !running) {
+                    errorHandler.accept(e);
+                    batch.clear();
+                    attempts = 0;
+                } else {
+                    backOff(attempts);
+                }
+            }
+        }
+        // Closed here rather than in close(), which may give up waiting while a batch is still being committed
+        closeConnection();
+    }
+    
+    private void backOff(int attempts) {
+        try {
+            Thread.sleep(RETRY_DELAY_MILLIS << (attempts - 1));
+        } catch (InterruptedException e) {
+            running = false;
+        }
+    }
+    
+    /**
+     * Commit a batch of changes in one transaction. Only the last change per player is written,
+     * so statement order within the batch does not matter.
+     */
+    private void write(List<Change> batch) throws SQLException {
+        Map<UUID, Change> latest = new LinkedHashMap<>();
+        for (Change change : batch) {
+            latest.put(change.uniqueId, change);
+        }
+        
+        try (PreparedStatement upsert = connection.prepareStatement(
+                "INSERT INTO whitelist (uuid, name, name_lower, added_at) VALUES (?, ?, ?, ?) "
+                        + "ON CONFLICT (uuid) DO UPDATE SET name = excluded.name, name_lower = excluded.name_lower");
+             PreparedStatement delete = connection.prepareStatement("DELETE FROM whitelist WHERE uuid = ?")) {
+            for (Change change : latest.values()) {
+                if (change.whitelisted) {
+                    upsert.setBytes(1, toBytes(change.uniqueId));
+                    upsert.setString(2, change.name);
+                    upsert.setString(3, change.name != null ? change.name.toLowerCase(Locale.ROOT) : null);
+                    upsert.setLong(4, change.time);
+                    upsert.addBatch();
+                } else {
+                    delete.setBytes(1, toBytes(change.uniqueId));
+                    delete.addBatch();
+                }
+            }
+            upsert.executeBatch();
+            delete.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException ignored) {
+            }
+            throw e;
+        }
+    }
+    
+    private static byte[] toBytes(UUID uniqueId) {
+        return ByteBuffer.allocate(16)
+                .putLong(uniqueId.getMostSignificantBits())
+                .putLong(uniqueId.getLeastSignificantBits())
+                .array();
+    }
+    
+    private static UUID toUuid(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+    
+    @Override
+    public int getPendingWrites() {
+        return queue.size();
+    }
+    
+    @Override
+    public void close() {
+        running = false;
+        if (thread == null) {
+            closeConnection();
+            return;
+        }
+        try {
+            thread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void closeConnection() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+            }
+            connection = null;
+        }
+    }
+}
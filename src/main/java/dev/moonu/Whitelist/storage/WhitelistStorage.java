@@ -0,0 +1,50 @@
+package dev.moonu.Whitelist.storage;
+
+import org.bukkit.OfflinePlayer;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Where whitelist entries live. {@link dev.moonu.Whitelist.WhitelistManager} reads and changes entries only
+ * through this interface, always on the server main thread.
+ */
+public interface WhitelistStorage {
+    /**
+     * Open the storage. Called once on the main thread before any other method.
+     * @throws IOException If the storage cannot be opened
+     */
+    void open() throws IOException;
+    
+    /**
+     * Get every whitelisted player
+     * @return UUID to name (name may be null)
+     */
+    Map<UUID, String> getEntries();
+    
+    /**
+     * Check whether a player is whitelisted
+     */
+    boolean isWhitelisted(OfflinePlayer player);
+    
+    /**
+     * Change a player's whitelist state. Must not block on I/O.
+     * @param player The player
+     * @param name The player's name, or null if unknown
+     * @param whitelisted The new state
+     */
+    void setWhitelisted(OfflinePlayer player, String name, boolean whitelisted);
+    
+    /**
+     * Get the number of changes not yet written
+     */
+    default int getPendingWrites() {
+        return 0;
+    }
+    
+    /**
+     * Write pending changes and release resources
+     */
+    void close();
+}
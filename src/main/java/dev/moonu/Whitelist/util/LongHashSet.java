@@ -0,0 +1,106 @@
+package dev.moonu.Whitelist.util;
+
+import java.util.Collection;
+
+/**
+ * Immutable open-addressing set of primitive longs, sized for at most half occupancy.
+ * Built for Discord snowflake IDs: a lookup is a hash and, typically, a single array probe, with no boxing.
+ */
+public final class LongHashSet {
+    private static final LongHashSet EMPTY = new LongHashSet(new long[0], false, 0);
+    
+    private final long[] slots;
+    private final boolean containsZero;
+    private final int size;
+    
+    private LongHashSet(long[] slots, boolean containsZero, int size) {
+        this.slots = slots;
+        this.containsZero = containsZero;
+        this.size = size;
+    }
+    
+    /**
+     * Get the empty set
+     */
+    public static LongHashSet empty() {
+        return EMPTY;
+    }
+    
+    /**
+     * Build a set holding the given values
+     * @param values The values, duplicates allowed
+     * @return The set
+     */
+    public static LongHashSet of(Collection<Long> values) {
+        if (values.isEmpty()) {
+            return EMPTY;
+        }
+        
+        int capacity = Integer.highestOneBit(Math.max(2, values.size()) * 2 - 1) << 1;
+        long[] slots = new long[capacity];
+        boolean containsZero = false;
+        int size = 0;
+        for (long value : values) {
+            // Zero marks an empty slot, so it is tracked on the side
+            if (value == 0) {
+                if (!containsZero) {
+                    containsZero = true;
+                    size++;
+                }
+                continue;
+            }
+            int slot = slot(slots, value);
+            if (slots[slot] == 0) {
+                slots[slot] = value;
+                size++;
+            }
+        }
+        return new LongHashSet(slots, containsZero, size);
+    }
+    
+    private static int hash(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+    
+    /**
+     * Find the slot holding the value, or the empty slot where it would go
+     */
+    private static int slot(long[] slots, long value) {
+        int mask = slots.length - 1;
+        int slot = hash(value) & mask;
+        while (slots[slot] != 0 && slots[slot] != value) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+    
+    /**
+     * Check whether the set holds a value
+     * @param value The value to look up
+     * @return true if present
+     */
+    public boolean contains(long value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        if (size == 0) {
+            return false;
+        }
+        return slots[slot(slots, value)] == value;
+    }
+    
+    /**
+     * Get the number of values
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Check whether the set is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
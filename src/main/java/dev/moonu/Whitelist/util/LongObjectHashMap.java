@@ -0,0 +1,121 @@
+package dev.moonu.Whitelist.util;
+
+/**
+ * Open-addressing map from primitive longs to objects, kept at most half full.
+ * A lookup is a hash and, typically, a single array probe, with no boxing. Not thread-safe.
+ * @param <V> The value type; null values are not allowed
+ */
+public final class LongObjectHashMap<V> {
+    private static final int INITIAL_CAPACITY = 16;
+    
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int size;
+    
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+    
+    /**
+     * Find the slot holding the key, or the empty slot where it would go
+     */
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+    
+    /**
+     * Get the value for a key
+     * @return The value, or null if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        return (V) values[slot(key)];
+    }
+    
+    /**
+     * Set the value for a key
+     * @param key The key
+     * @param value The value, not null
+     */
+    public void put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int slot = slot(key);
+        if (values[slot] == null) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+    
+    /**
+     * Remove a key
+     * @return The removed value, or null if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int hole = slot(key);
+        V removed = (V) values[hole];
+        if (removed == null) {
+            return null;
+        }
+        
+        // Linear-probing deletion: shift later entries of the probe run back into the hole
+        int mask = keys.length - 1;
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (values[slot] == null) {
+                break;
+            }
+            int home = hash(keys[slot]) & mask;
+            boolean movable = hole <= slot ? (home <= hole || home > slot) : (home <= hole && home > slot);
+            if (movable) {
+                keys[hole] = keys[slot];
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = null;
+        size--;
+        return removed;
+    }
+    
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+    
+    /**
+     * Remove every entry
+     */
+    public void clear() {
+        keys = new long[INITIAL_CAPACITY];
+        values = new Object[INITIAL_CAPACITY];
+        size = 0;
+    }
+    
+    public int size() {
+        return size;
+    }
+}
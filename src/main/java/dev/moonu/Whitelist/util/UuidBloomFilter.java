@@ -0,0 +1,76 @@
+package dev.moonu.Whitelist.util;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over UUIDs, sized for about 10 bits and 7 probes per expected entry (roughly 1% false positives).
+ * Bits live in an {@link AtomicLongArray}, so one writer can add while any number of threads query without locking.
+ * Entries cannot be removed; rebuild the filter instead.
+ */
+public final class UuidBloomFilter {
+    private static final int BITS_PER_ENTRY = 10;
+    private static final int PROBES = 7;
+    
+    private final AtomicLongArray words;
+    private final int mask;
+    private final int capacity;
+    
+    /**
+     * @param capacity The number of entries the filter is sized for
+     */
+    public UuidBloomFilter(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        long bits = Math.max(64, Long.highestOneBit((long) this.capacity * BITS_PER_ENTRY - 1) << 1);
+        bits = Math.min(bits, 1L << 30);
+        this.words = new AtomicLongArray((int) (bits >>> 6));
+        this.mask = (int) bits - 1;
+    }
+    
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+    
+    /**
+     * Add a UUID. Only one thread may add at a time.
+     */
+    public void add(UUID uniqueId) {
+        long first = mix(uniqueId.getMostSignificantBits() ^ uniqueId.getLeastSignificantBits());
+        long step = mix(uniqueId.getLeastSignificantBits() + 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < PROBES; i++) {
+            int bit = (int) (first + i * step) & mask;
+            long word = words.get(bit >>> 6);
+            long set = word | (1L << bit);
+            if (set != word) {
+                words.set(bit >>> 6, set);
+            }
+        }
+    }
+    
+    /**
+     * Check whether a UUID may have been added
+     * @return false if the UUID was certainly never added
+     */
+    public boolean mightContain(UUID uniqueId) {
+        long first = mix(uniqueId.getMostSignificantBits() ^ uniqueId.getLeastSignificantBits());
+        long step = mix(uniqueId.getLeastSignificantBits() + 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < PROBES; i++) {
+            int bit = (int) (first + i * step) & mask;
+            if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Get the number of entries the filter is sized for
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}